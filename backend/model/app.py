@@ -1,10 +1,14 @@
-from fastapi import FastAPI, APIRouter, Response, HTTPException
+from fastapi import FastAPI, APIRouter, Request, Response, HTTPException
 from fastapi.middleware.cors import CORSMiddleware
 from fastapi.staticfiles import StaticFiles
 from fastapi.openapi.docs import get_swagger_ui_html
 from dtos import ModelInput
 from mlmodel import infer
+from typing import Any, List, Optional
+from pydantic import ValidationError
+import struct
 import uvicorn
+import zlib
 
 from fastapi.responses import RedirectResponse, PlainTextResponse
 import traceback
@@ -12,6 +16,68 @@ import traceback
 app = FastAPI(docs_url=None, redoc_url=None, openapi_url=None)
 api_router = APIRouter(prefix="/model/api")
 
+# Upper bound on an inflated request body, so a small compressed
+# request cannot expand into an arbitrarily large one.
+MAX_INFLATED_SIZE = 16 * 1024 * 1024
+
+
+class GzipRequestMiddleware:
+    """Inflates gzip request bodies, which the gateway sends when
+    com.th26.model.client.compression is set to gzip."""
+
+    def __init__(self, app):
+        self.app = app
+
+    async def __call__(self, scope, receive, send):
+        if scope["type"] != "http":
+            await self.app(scope, receive, send)
+            return
+
+        encoding = dict(scope["headers"]).get(b"content-encoding")
+        if encoding is None:
+            await self.app(scope, receive, send)
+            return
+        if encoding.strip().lower() != b"gzip":
+            response = PlainTextResponse("Unsupported content encoding", status_code=415)
+            await response(scope, receive, send)
+            return
+
+        body = bytearray()
+        more_body = True
+        while more_body:
+            message = await receive()
+            body.extend(message.get("body", b""))
+            more_body = message.get("more_body", False)
+
+        try:
+            decompressor = zlib.decompressobj(16 + zlib.MAX_WBITS)
+            inflated = decompressor.decompress(bytes(body), MAX_INFLATED_SIZE + 1)
+        except zlib.error:
+            response = PlainTextResponse("Body is not valid gzip", status_code=400)
+            await response(scope, receive, send)
+            return
+        if len(inflated) > MAX_INFLATED_SIZE:
+            response = PlainTextResponse("Inflated body is too large", status_code=413)
+            await response(scope, receive, send)
+            return
+
+        headers = [
+            (name, value) for name, value in scope["headers"]
+            if name not in (b"content-encoding", b"content-length")
+        ]
+        headers.append((b"content-length", str(len(inflated)).encode()))
+
+        replayed = False
+
+        async def replay():
+            nonlocal replayed
+            if replayed:
+                return await receive()
+            replayed = True
+            return {"type": "http.request", "body": inflated, "more_body": False}
+
+        await self.app(dict(scope, headers=headers), replay, send)
+
 app.add_middleware(
     CORSMiddleware,
     allow_origins=["*"],
@@ -19,6 +85,7 @@ app.add_middleware(
     allow_methods=["*"],
     allow_headers=["*"],
 )
+app.add_middleware(GzipRequestMiddleware)
 
 
 @api_router.get("/ping")
@@ -42,6 +109,63 @@ async def predict(input_data: ModelInput):
     return Response(content=result, media_type="text/plain")
 
 
+# Binary prediction frame sent by the gateway when com.th26.model.transport is binary.
+# Little-endian: version (u8), sex (u8, 0 = female, 1 = male), height_in (f32),
+# weight_lbs (f32), sample count (u32), then the samples (f32 each).
+BREATH_FRAME_HEADER = struct.Struct("<BBffI")
+BREATH_FRAME_VERSION = 1
+
+
+@api_router.post("/predict/binary")
+async def predict_binary(request: Request):
+    body = await request.body()
+    if len(body) < BREATH_FRAME_HEADER.size:
+        raise HTTPException(status_code=400, detail="Malformed breath frame")
+
+    version, sex, height_in, weight_lbs, count = BREATH_FRAME_HEADER.unpack_from(body)
+    if version != BREATH_FRAME_VERSION or sex > 1 or len(body) != BREATH_FRAME_HEADER.size + 4 * count:
+        raise HTTPException(status_code=400, detail="Malformed breath frame")
+
+    # Validated through the same model as JSON input, so both transports accept the same data
+    try:
+        input_data = ModelInput(
+            height_in=height_in,
+            weight_lbs=weight_lbs,
+            sex="male" if sex else "female",
+            breath_data=list(struct.unpack_from(f"<{count}f", body, BREATH_FRAME_HEADER.size)),
+        )
+    except ValidationError as e:
+        raise HTTPException(status_code=422, detail=e.errors(include_url=False, include_context=False))
+
+    return await predict(input_data)
+
+
+@api_router.post("/predict/batch")
+async def predict_batch(inputs: List[Any]) -> List[Optional[str]]:
+    # Results line up with the inputs; an item that is invalid or fails is
+    # null so the rest of the batch is still returned to the gateway.
+    # Items are validated one at a time for that reason, rather than by
+    # declaring the body as List[ModelInput], which rejects the whole batch.
+    results = []
+    for item in inputs:
+        try:
+            input_data = ModelInput.model_validate(item)
+        except ValidationError:
+            results.append(None)
+            continue
+        try:
+            results.append(infer(
+                input_data.height_in,
+                input_data.weight_lbs,
+                input_data.sex,
+                input_data.breath_data
+            ))
+        except Exception:
+            results.append(None)
+
+    return results
+
+
 @app.get("/openapi.yaml", include_in_schema=False)
 async def get_openapi_yaml():
     try:
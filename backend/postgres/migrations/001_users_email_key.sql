@@ -0,0 +1,25 @@
+-- Adds users.email_key to databases created before it was part of schema.sql.
+-- Fresh databases already get it from schema.sql; this file is not run automatically.
+--
+-- Run with psql outside a transaction block, since the index is built CONCURRENTLY
+-- to avoid locking users against writes while it builds.
+--
+-- The index build fails if two existing users differ only in the case of their
+-- email. Find them first with:
+--   SELECT lower(email), array_agg(email) FROM users GROUP BY lower(email) HAVING count(*) > 1;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_key TEXT;
+
+UPDATE users SET email_key = lower(email) WHERE email_key IS NULL;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS users_email_key_idx ON users (email_key);
+
+ALTER TABLE users ALTER COLUMN email_key SET NOT NULL;
+
+-- Postgres has no ADD CONSTRAINT IF NOT EXISTS; dropping it first keeps the file re-runnable.
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key_lower;
+ALTER TABLE users ADD CONSTRAINT users_email_key_lower CHECK (email_key = lower(email));
+
+-- The original UNIQUE (email) constraint, which email_key's index now implies.
+-- Postgres names it users_email_key after the email column, not the new email_key column.
+ALTER TABLE users DROP CONSTRAINT IF EXISTS users_email_key;
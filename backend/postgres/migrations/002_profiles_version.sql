@@ -0,0 +1,7 @@
+-- Adds profiles.version to databases created before it was part of schema.sql.
+-- Fresh databases already get it from schema.sql; this file is not run automatically.
+--
+-- Existing profiles start at version 0. Adding a column with a constant default
+-- does not rewrite the table.
+
+ALTER TABLE profiles ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
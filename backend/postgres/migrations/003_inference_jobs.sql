@@ -0,0 +1,22 @@
+-- Adds the inference_jobs queue to databases created before it was part of schema.sql.
+-- Fresh databases already get it from schema.sql; this file is not run automatically.
+
+CREATE TABLE IF NOT EXISTS inference_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    priority SMALLINT NOT NULL CHECK (priority IN (0, 1)),
+    status TEXT NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED')),
+    attempts SMALLINT NOT NULL DEFAULT 0,
+    sample_count INTEGER NOT NULL CHECK (sample_count > 0),
+    encoding SMALLINT NOT NULL,
+    samples BYTEA NOT NULL,
+    diagnosis TEXT,
+    error TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    available_at TIMESTAMPTZ NOT NULL,
+    locked_until TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS inference_jobs_queue_idx ON inference_jobs (priority, available_at) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS inference_jobs_running_idx ON inference_jobs (locked_until) WHERE status = 'RUNNING';
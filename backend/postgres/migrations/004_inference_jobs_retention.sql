@@ -0,0 +1,10 @@
+-- Lets finished inference jobs drop their breath data, and indexes them for the
+-- retention purge, on databases created before both were part of schema.sql.
+-- Fresh databases already get them from schema.sql; this file is not run automatically.
+
+ALTER TABLE inference_jobs ALTER COLUMN samples DROP NOT NULL;
+
+-- Jobs finished before this change still hold their samples
+UPDATE inference_jobs SET samples = NULL WHERE finished_at IS NOT NULL AND samples IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS inference_jobs_finished_idx ON inference_jobs (finished_at) WHERE finished_at IS NOT NULL;
@@ -4,10 +4,16 @@
 
 CREATE TABLE IF NOT EXISTS users (
     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
-    email TEXT NOT NULL UNIQUE CHECK (email ~* '^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Z]{2,}$'),
-    password_hash TEXT NOT NULL
+    email TEXT NOT NULL CHECK (email ~* '^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\.[A-Z]{2,}$'),
+    -- Lowercased email used for all lookups, so they are case-insensitive and still
+    -- use the unique index; its uniqueness also keeps email itself unique
+    email_key TEXT NOT NULL,
+    password_hash TEXT NOT NULL,
+    CONSTRAINT users_email_key_lower CHECK (email_key = lower(email))
 );
 
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_key_idx ON users (email_key);
+
 CREATE TABLE IF NOT EXISTS profiles (
     id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
     first_name TEXT NOT NULL,
@@ -16,5 +22,45 @@ CREATE TABLE IF NOT EXISTS profiles (
     sex TEXT NOT NULL CHECK (sex IN ('male', 'female')),
     gender_identity TEXT,
     height_in NUMERIC(5, 2) NOT NULL CHECK (height_in > 0),
-    weight_lbs NUMERIC(5, 2) NOT NULL CHECK (weight_lbs > 0)
+    weight_lbs NUMERIC(5, 2) NOT NULL CHECK (weight_lbs > 0),
+    -- Incremented on every update; used for optimistic locking and as the profile's ETag
+    version BIGINT NOT NULL DEFAULT 0
 );
+
+-- One row per breath recording; samples are stored as a single compressed
+-- block (see BreathCodec in usermanagement) rather than one row per sample
+CREATE TABLE IF NOT EXISTS recordings (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    recorded_at TIMESTAMPTZ NOT NULL,
+    sample_count INTEGER NOT NULL CHECK (sample_count > 0),
+    encoding SMALLINT NOT NULL,
+    samples BYTEA NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS recordings_user_recorded_at_idx ON recordings (user_id, recorded_at DESC);
+
+-- Queued predictions (see InferenceJobWorker in usermanagement). Workers claim
+-- QUEUED rows with FOR UPDATE SKIP LOCKED and mark them RUNNING until
+-- locked_until; a RUNNING job whose lock has expired is queued again.
+CREATE TABLE IF NOT EXISTS inference_jobs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    priority SMALLINT NOT NULL CHECK (priority IN (0, 1)),
+    status TEXT NOT NULL CHECK (status IN ('QUEUED', 'RUNNING', 'SUCCEEDED', 'FAILED')),
+    attempts SMALLINT NOT NULL DEFAULT 0,
+    sample_count INTEGER NOT NULL CHECK (sample_count > 0),
+    encoding SMALLINT NOT NULL,
+    -- Cleared once the job has finished
+    samples BYTEA,
+    diagnosis TEXT,
+    error TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    available_at TIMESTAMPTZ NOT NULL,
+    locked_until TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ
+);
+
+CREATE INDEX IF NOT EXISTS inference_jobs_queue_idx ON inference_jobs (priority, available_at) WHERE status = 'QUEUED';
+CREATE INDEX IF NOT EXISTS inference_jobs_running_idx ON inference_jobs (locked_until) WHERE status = 'RUNNING';
+CREATE INDEX IF NOT EXISTS inference_jobs_finished_idx ON inference_jobs (finished_at) WHERE finished_at IS NOT NULL;
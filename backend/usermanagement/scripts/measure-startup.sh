@@ -0,0 +1,143 @@
+#!/usr/bin/env bash
+#
+# Measures how long the User Management API takes to start in each build mode.
+#
+# For each run it records:
+#   * startup  - the startup time Spring Boot logs ("Started App in ...")
+#   * ready    - from launch until /ping answers
+#   * first    - latency of the first database-backed request (a profile lookup)
+#   * rss      - resident memory once the first request has been served
+# and prints the median of each per mode.
+#
+# Usage: scripts/measure-startup.sh [-n runs] [mode ...]
+#
+# Modes (default: jar extracted aot cache):
+#   jar        java -jar on the packaged fat jar
+#   extracted  java -jar on the jar extracted into target/extracted
+#   aot        extracted, with Spring AOT initialization (needs `mvn -Paot package`)
+#   cache      aot, plus the JDK AOT cache from a training run (created on first use)
+#   native     the GraalVM executable (needs `mvn -Pnative package`)
+#
+# Needs a reachable PostgreSQL with the schema loaded, e.g. `make postgres` from backend/.
+# Set DATASOURCE_URL to point elsewhere (default jdbc:postgresql://localhost:5432/devdb).
+# Run from backend/usermanagement/.
+
+set -euo pipefail
+
+RUNS=5
+while getopts "n:" opt; do
+    case "$opt" in
+        n) RUNS="$OPTARG" ;;
+        *) echo "usage: $0 [-n runs] [mode ...]" >&2; exit 2 ;;
+    esac
+done
+shift $((OPTIND - 1))
+if [[ $# -eq 0 ]]; then
+    set -- jar extracted aot cache
+fi
+MODES=("$@")
+
+PORT="${PORT:-8080}"
+DATASOURCE_URL="${DATASOURCE_URL:-jdbc:postgresql://localhost:5432/devdb}"
+BASE="http://localhost:${PORT}/usermanagement/api"
+JAR=target/usermanagement-service.jar
+EXTRACTED=target/extracted
+CACHE="${EXTRACTED}/app.aot"
+LOG=target/startup.log
+
+APP_ARGS=(
+    "--server.port=${PORT}"
+    "--spring.datasource.url=${DATASOURCE_URL}"
+)
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { if (NR == 0) print "-"; else if (NR % 2) print v[(NR + 1) / 2]; else print (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+extract() {
+    if [[ ! -f "${EXTRACTED}/usermanagement-service.jar" || "${JAR}" -nt "${EXTRACTED}/usermanagement-service.jar" ]]; then
+        rm -rf "${EXTRACTED}"
+        java -Djarmode=tools -jar "${JAR}" extract --destination "${EXTRACTED}" > /dev/null
+    fi
+}
+
+# Same training run as the Dockerfile; the cache is only valid for the jar it was made from.
+train() {
+    if [[ ! -f "${CACHE}" || "${EXTRACTED}/usermanagement-service.jar" -nt "${CACHE}" ]]; then
+        echo "Training AOT cache..." >&2
+        java -XX:AOTCacheOutput="${CACHE}" \
+            -Dspring.aot.enabled=true \
+            -Dspring.context.exit=onRefresh \
+            -jar "${EXTRACTED}/usermanagement-service.jar" "${APP_ARGS[@]}" > "${LOG}" 2>&1
+    fi
+}
+
+command_for() {
+    case "$1" in
+        jar)       echo java -jar "${JAR}" ;;
+        extracted) echo java -jar "${EXTRACTED}/usermanagement-service.jar" ;;
+        aot)       echo java -Dspring.aot.enabled=true -jar "${EXTRACTED}/usermanagement-service.jar" ;;
+        cache)     echo java -XX:AOTCache="${CACHE}" -Dspring.aot.enabled=true -jar "${EXTRACTED}/usermanagement-service.jar" ;;
+        native)    echo target/usermanagement-service ;;
+        *)         echo "unknown mode: $1" >&2; exit 2 ;;
+    esac
+}
+
+run_once() {
+    local -a cmd
+    read -r -a cmd <<< "$(command_for "$1")"
+
+    local start pid ready first_start first rss startup
+    start=$(now_ms)
+    "${cmd[@]}" "${APP_ARGS[@]}" > "${LOG}" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "${BASE}/ping"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "$1 exited before becoming ready, see ${LOG}" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    ready=$(( $(now_ms) - start ))
+
+    # Any status will do; an unknown user still goes through the query path.
+    first_start=$(now_ms)
+    curl -s -o /dev/null "${BASE}/profile/startup-probe@example.com"
+    first=$(( $(now_ms) - first_start ))
+
+    rss=$(awk '/VmRSS/ { print int($2 / 1024) }' "/proc/${pid}/status" 2> /dev/null || echo "-")
+    startup=$(sed -n 's/.*Started App in \([0-9.]*\) seconds.*/\1/p' "${LOG}" | awk '{ print int($1 * 1000) }')
+
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+    echo "${startup:--} ${ready} ${first} ${rss}"
+}
+
+if [[ ! -f "${JAR}" ]]; then
+    echo "${JAR} not found, run mvn package (or mvn -Paot package) first" >&2
+    exit 1
+fi
+
+printf "%-10s %12s %12s %12s %12s\n" mode startup_ms ready_ms first_ms rss_mb
+for mode in "${MODES[@]}"; do
+    case "${mode}" in
+        extracted | aot) extract ;;
+        cache) extract; train ;;
+    esac
+
+    results=()
+    for _ in $(seq "${RUNS}"); do
+        results+=("$(run_once "${mode}")")
+    done
+
+    printf "%-10s" "${mode}"
+    for column in 1 2 3 4; do
+        printf " %12s" "$(printf '%s\n' "${results[@]}" | awk -v c="${column}" '$c != "-" { print $c }' | median)"
+    done
+    printf "\n"
+done
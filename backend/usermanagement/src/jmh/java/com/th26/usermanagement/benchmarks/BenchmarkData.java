@@ -0,0 +1,35 @@
+package com.th26.usermanagement.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic inputs shared by the benchmarks, shaped like real recordings:
+ * a few breath cycles of voltage readings in the spirometer's 0-5V range.
+ */
+final class BenchmarkData {
+    static final String EMAIL = "jane.doe@example.com";
+
+    private BenchmarkData() {}
+
+    static float[] breathSamples(int count) {
+        SplittableRandom random = new SplittableRandom(26);
+        float[] samples = new float[count];
+        for (int i = 0; i < count; i++) {
+            double cycle = Math.sin(i * 2 * Math.PI / 500);
+            samples[i] = (float) Math.max(0, 2.5 + 2.0 * cycle + random.nextGaussian() * 0.05);
+        }
+        return samples;
+    }
+
+    static List<BigDecimal> breathDecimals(int count) {
+        float[] samples = breathSamples(count);
+        List<BigDecimal> decimals = new ArrayList<>(count);
+        for (float sample : samples) {
+            decimals.add(new BigDecimal(Float.toString(sample)));
+        }
+        return decimals;
+    }
+}
@@ -0,0 +1,66 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import com.th26.usermanagement.dtos.requests.BreathSamples;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a recording from the JSON body versus the packed float32 body
+ * accepted by /predict. Run with {@code -prof gc} to compare allocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BreathIngestionBenchmark {
+    private static final TypeReference<List<BigDecimal>> DECIMAL_LIST = new TypeReference<>() {};
+
+    @Param({"1000", "10000", "100000"})
+    public int samples;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private byte[] jsonBody;
+    private byte[] binaryBody;
+
+    @Setup
+    public void setUp() {
+        this.jsonBody = this.jsonMapper.writeValueAsBytes(BenchmarkData.breathDecimals(this.samples));
+
+        float[] data = BenchmarkData.breathSamples(this.samples);
+        ByteBuffer buffer = ByteBuffer.allocate(data.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(data);
+        this.binaryBody = buffer.array();
+    }
+
+    @Benchmark
+    public float[] decodeJson() {
+        List<BigDecimal> decimals = this.jsonMapper.readValue(this.jsonBody, DECIMAL_LIST);
+        return BreathSamples.fromDecimals(decimals);
+    }
+
+    @Benchmark
+    public float[] decodeFloat32() {
+        return BreathSamples.fromFloat32(this.binaryBody);
+    }
+}
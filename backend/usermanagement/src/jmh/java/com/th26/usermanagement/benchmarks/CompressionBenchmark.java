@@ -0,0 +1,92 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CPU cost of each supported content encoding on a JSON breath upload.
+ * The raw and encoded size of each payload, i.e. the bytes on the wire, are
+ * reported next to the timings as the {@code rawBytes} and {@code wireBytes}
+ * secondary results.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int samples;
+
+    @Param({"gzip", "zstd"})
+    public String encoding;
+
+    private byte[] body;
+    private byte[] encoded;
+
+    // Sizes rather than counts: each invocation overwrites them, so the value
+    // reported for an iteration is the size of the payload it handled
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class PayloadSize {
+        public long rawBytes;
+        public long wireBytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.body = JsonMapper.builder().build().writeValueAsBytes(BenchmarkData.breathDecimals(this.samples));
+        this.encoded = this.encode();
+    }
+
+    @Benchmark
+    public byte[] compress(PayloadSize size) throws IOException {
+        byte[] result = this.encode();
+        size.rawBytes = this.body.length;
+        size.wireBytes = result.length;
+        return result;
+    }
+
+    @Benchmark
+    public byte[] decompress(PayloadSize size) throws IOException {
+        size.rawBytes = this.body.length;
+        size.wireBytes = this.encoded.length;
+        ByteArrayInputStream in = new ByteArrayInputStream(this.encoded);
+        try (InputStream decoder = this.encoding.equals("gzip") ? new GZIPInputStream(in) : new ZstdInputStream(in)) {
+            return decoder.readAllBytes();
+        }
+    }
+
+    private byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(this.body.length / 4);
+        try (OutputStream encoder = this.encoding.equals("gzip") ? new GZIPOutputStream(out) : new ZstdOutputStream(out)) {
+            encoder.write(this.body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.repositories.ProfileRepository;
+import com.th26.usermanagement.services.ProfileServiceImpl;
+import com.th26.usermanagement.services.ReadYourWrites;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code ProfileResponse} lookup in {@link ProfileServiceImpl}, with the
+ * repository replaced by an in-memory stub that builds the projection the same
+ * way Hibernate's constructor expression does, so only the service's own work is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfileMappingBenchmark {
+    private ProfileServiceImpl profileService;
+
+    @Setup
+    public void setUp() {
+        BigDecimal height = new BigDecimal("68.50");
+        BigDecimal weight = new BigDecimal("154.00");
+        UUID id = UUID.randomUUID();
+
+        ProfileRepository profileRepository = (ProfileRepository) Proxy.newProxyInstance(
+            ProfileRepository.class.getClassLoader(),
+            new Class<?>[] { ProfileRepository.class },
+            (proxy, method, args) -> {
+                if (method.getName().equals("findProfileResponseByEmailKey")) {
+                    return Optional.of(new ProfileResponse(
+                        "Jane", "Doe", (short) 34, "female", null, height, weight, id, 3L
+                    ));
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        this.profileService = new ProfileServiceImpl(profileRepository, new ReadYourWrites(Duration.ofSeconds(5)), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public ProfileResponse mapProfile() {
+        return this.profileService.getProfileByEmail(BenchmarkData.EMAIL);
+    }
+}
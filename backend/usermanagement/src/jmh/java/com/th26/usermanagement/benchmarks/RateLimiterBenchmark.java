@@ -0,0 +1,65 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.services.PredictRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the per-user rate limit check on every prediction, both spread
+ * across many users and with several threads contending on one user's bucket.
+ * The limit is set high enough that no call is rejected.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+    private static final int USERS = 10_000;
+
+    private PredictRateLimiter rateLimiter;
+    private String[] emails;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setUp() {
+        this.rateLimiter = new PredictRateLimiter(
+            new SimpleMeterRegistry(), true, Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ofMinutes(10), USERS * 2L
+        );
+        this.emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            this.emails[i] = "user-" + i + "@example.com";
+        }
+    }
+
+    @Benchmark
+    public void acquireManyUsers(Cursor cursor) {
+        this.rateLimiter.acquire(this.emails[cursor.next++ % USERS]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void acquireOneUserContended() {
+        this.rateLimiter.acquire(BenchmarkData.EMAIL);
+    }
+}
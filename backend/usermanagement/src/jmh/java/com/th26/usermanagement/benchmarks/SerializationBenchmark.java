@@ -0,0 +1,52 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing the request forwarded to the model service.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int samples;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private ModelRerouteRequest request;
+
+    @Setup
+    public void setUp() {
+        this.request = ModelRerouteRequest.builder()
+            .height(new BigDecimal("68.50"))
+            .weight(new BigDecimal("154.00"))
+            .sex("female")
+            .breathData(BenchmarkData.breathSamples(this.samples))
+            .build();
+    }
+
+    @Benchmark
+    public byte[] serializeModelRequest() {
+        return this.jsonMapper.writeValueAsBytes(this.request);
+    }
+}
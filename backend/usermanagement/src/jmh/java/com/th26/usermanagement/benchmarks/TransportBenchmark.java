@@ -0,0 +1,117 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import tools.jackson.databind.json.JsonMapper;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+import com.th26.usermanagement.services.BinaryModelTransport;
+import com.th26.usermanagement.services.JsonModelTransport;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call overhead of each model transport: encoding the request alone, and
+ * a full round trip to an in-process stub that drains the body and answers
+ * immediately, so the difference is the gateway's and the wire's share only.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransportBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int samples;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private ModelRerouteRequest request;
+    private HttpServer stub;
+    private ExecutorService stubExecutor;
+    private JsonModelTransport jsonTransport;
+    private BinaryModelTransport binaryTransport;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.request = ModelRerouteRequest.builder()
+            .height(new BigDecimal("68.50"))
+            .weight(new BigDecimal("154.00"))
+            .sex("female")
+            .breathData(BenchmarkData.breathSamples(this.samples))
+            .build();
+
+        this.stubExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        this.stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.stub.setExecutor(this.stubExecutor);
+        this.stub.createContext("/model/api/predict", TransportBenchmark::diagnose);
+        this.stub.start();
+
+        String endpoint = "http://localhost:" + this.stub.getAddress().getPort() + "/model/api";
+        this.jsonTransport = new JsonModelTransport(RestClient.builder().baseUrl(endpoint).build());
+        this.binaryTransport = new BinaryModelTransport(endpoint, Duration.ofSeconds(2), Duration.ofSeconds(30));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.stub.stop(0);
+        this.stubExecutor.close();
+    }
+
+    private static void diagnose(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "Asthma".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeJson() {
+        return this.jsonMapper.writeValueAsBytes(this.request);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryModelTransport.encodeFrame(this.request);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> roundTripJson() {
+        return this.jsonTransport.predict(this.request);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> roundTripBinary() {
+        return this.binaryTransport.predict(this.request);
+    }
+}
@@ -0,0 +1,91 @@
+package com.th26.usermanagement.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.springframework.web.context.request.WebRequest;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import jakarta.validation.executable.ExecutableValidator;
+
+import com.th26.usermanagement.controllers.ModelController;
+import com.th26.usermanagement.controllers.ProfileController;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Method validation as Spring runs it on the controllers: the per-element
+ * {@code @DecimalMin} check on JSON breath data and the {@code @Email} regex
+ * applied to the path variable of every endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int samples;
+
+    private ValidatorFactory validatorFactory;
+    private ExecutableValidator validator;
+
+    private ModelController modelController;
+    private Method queryModel;
+    private ProfileController profileController;
+    private Method getProfileByEmail;
+
+    private List<BigDecimal> breathData;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        this.validatorFactory = Validation.buildDefaultValidatorFactory();
+        this.validator = this.validatorFactory.getValidator().forExecutables();
+
+        // Only the annotated signatures are exercised, so no service is needed
+        this.modelController = new ModelController(null);
+        this.queryModel = ModelController.class.getMethod("queryModel", String.class, List.class);
+        this.profileController = new ProfileController();
+        this.getProfileByEmail = ProfileController.class.getMethod("getProfileByEmail", String.class, WebRequest.class);
+
+        this.breathData = BenchmarkData.breathDecimals(this.samples);
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ModelController>> validateBreathData() {
+        return this.validator.validateParameters(
+            this.modelController, this.queryModel, new Object[] { BenchmarkData.EMAIL, this.breathData }
+        );
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Set<ConstraintViolation<ProfileController>> validateEmail() {
+        return this.validator.validateParameters(
+            // The WebRequest carries no constraints, so it can be left null
+            this.profileController, this.getProfileByEmail, new Object[] { BenchmarkData.EMAIL, null }
+        );
+    }
+}
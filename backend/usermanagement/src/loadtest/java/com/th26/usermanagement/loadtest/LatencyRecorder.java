@@ -0,0 +1,56 @@
+package com.th26.usermanagement.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latencies and error counts for one endpoint. Each worker records into its
+ * own instance, so recording needs no synchronization; the instances are
+ * merged once the run is over.
+ */
+final class LatencyRecorder {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    void record(long nanos, boolean error) {
+        if (this.count == this.latencies.length) {
+            this.latencies = Arrays.copyOf(this.latencies, this.count * 2);
+        }
+        this.latencies[this.count++] = nanos;
+        if (error) {
+            this.errors++;
+        }
+    }
+
+    void merge(LatencyRecorder other) {
+        for (int i = 0; i < other.count; i++) {
+            this.record(other.latencies[i], false);
+        }
+        this.errors += other.errors;
+    }
+
+    int count() {
+        return this.count;
+    }
+
+    int errors() {
+        return this.errors;
+    }
+
+    /**
+     * Returns the given percentiles in milliseconds, using the nearest-rank method.
+     */
+    double[] percentiles(double... percentiles) {
+        long[] sorted = Arrays.copyOf(this.latencies, this.count);
+        Arrays.sort(sorted);
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (sorted.length == 0) {
+                continue;
+            }
+            int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length);
+            values[i] = sorted[Math.clamp(rank - 1, 0, sorted.length - 1)] / 1_000_000.0;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,350 @@
+package com.th26.usermanagement.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.th26.usermanagement.App;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Drives mixed traffic at the service and reports throughput and latency per
+ * endpoint. The service runs in-process against an in-memory H2 database and
+ * a {@link ModelStub}, so no Docker, Postgres or model container is needed.
+ *
+ * <p>Settings are read from system properties, see {@link Settings}. Results
+ * are printed and written to {@code target/loadtest-results.json} so runs can
+ * be compared against a saved baseline. Listing several thread modes runs the
+ * same traffic against a fresh instance in each mode, one after the other,
+ * and compares them.
+ */
+public final class LoadTest {
+    private static final String API = "/usermanagement/api";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    enum Endpoint { CREATE, UPDATE, PROFILE, PREDICT }
+
+    record Settings(
+        int concurrency,
+        int users,
+        int samples,
+        boolean repeatPredictions,
+        Duration warmup,
+        Duration duration,
+        Map<Endpoint, Integer> mix,
+        Duration modelLatency,
+        Duration modelJitter,
+        double modelErrorRate,
+        String modelTransport,
+        int serverThreads,
+        List<String> threads,
+        Path output
+    ) {
+        static Settings fromSystemProperties() {
+            Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+            for (String entry : System.getProperty("loadtest.mix", "create:1,update:1,profile:4,predict:4").split(",")) {
+                String[] parts = entry.split(":");
+                mix.put(Endpoint.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1].trim()));
+            }
+            return new Settings(
+                Integer.getInteger("loadtest.concurrency", 32),
+                Integer.getInteger("loadtest.users", 200),
+                Integer.getInteger("loadtest.samples", 2000),
+                // Off by default: repeated uploads are answered from the inference cache
+                Boolean.getBoolean("loadtest.predict.repeat"),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 10)),
+                Duration.ofSeconds(Long.getLong("loadtest.duration-seconds", 30)),
+                mix,
+                Duration.ofMillis(Long.getLong("loadtest.model.latency-ms", 50)),
+                Duration.ofMillis(Long.getLong("loadtest.model.jitter-ms", 20)),
+                Double.parseDouble(System.getProperty("loadtest.model.error-rate", "0.01")),
+                System.getProperty("loadtest.model.transport", "json"),
+                // 0 keeps Tomcat's default of 200
+                Integer.getInteger("loadtest.server.threads", 0),
+                // platform, virtual, or both to compare them
+                Stream.of(System.getProperty("loadtest.threads", "platform").split(","))
+                    .map(mode -> mode.trim().toLowerCase(Locale.ROOT))
+                    .toList(),
+                Path.of(System.getProperty("loadtest.output", "target/loadtest-results.json"))
+            );
+        }
+    }
+
+    record Run(String threads, Map<Endpoint, LatencyRecorder> results, int modelPeakInFlight) {}
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String breathData;
+    private final AtomicLong nextUser = new AtomicLong();
+    private final AtomicLong nextUpload = new AtomicLong();
+
+    private LoadTest(Settings settings, int port) {
+        this.settings = settings;
+        this.baseUrl = "http://localhost:" + port + API;
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        // One sample short when each upload gets its own final sample
+        this.breathData = breathData(settings.repeatPredictions() ? settings.samples() : settings.samples() - 1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        List<Run> runs = new ArrayList<>();
+        for (String threads : settings.threads()) {
+            if (!threads.equals("platform") && !threads.equals("virtual")) {
+                throw new IllegalArgumentException("loadtest.threads must be platform or virtual, not " + threads);
+            }
+            runs.add(run(settings, threads));
+        }
+        report(settings, runs);
+    }
+
+    private static Run run(Settings settings, String threads) throws Exception {
+        System.out.printf("%n== %s threads ==%n", threads);
+        List<String> serverArgs = new ArrayList<>();
+        if (settings.serverThreads() > 0) {
+            serverArgs.add("--server.tomcat.threads.max=" + settings.serverThreads());
+        }
+        try (ModelStub modelStub = new ModelStub(settings.modelLatency(), settings.modelJitter(), settings.modelErrorRate());
+             ConfigurableApplicationContext context = SpringApplication.run(App.class, Stream.concat(Stream.of(
+                 "--server.port=0",
+                 // A separate database per run, so each starts from the same state
+                 "--spring.datasource.url=jdbc:h2:mem:loadtest-" + threads + ";DB_CLOSE_DELAY=-1",
+                 "--spring.datasource.username=sa",
+                 "--spring.datasource.password=",
+                 "--spring.jpa.hibernate.ddl-auto=create-drop",
+                 "--com.th26.model.endpoint=" + modelStub.endpoint(),
+                 "--com.th26.model.transport=" + settings.modelTransport(),
+                 "--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                 // Workers reuse a small pool of users, far faster than any real client
+                 "--com.th26.ratelimit.predict.enabled=false",
+                 // The job queue is not part of the mix, so don't poll H2 for it
+                 "--com.th26.jobs.enabled=false",
+                 "--logging.level.root=WARN"), serverArgs.stream()).toArray(String[]::new))) {
+            int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+            Map<Endpoint, LatencyRecorder> results = new LoadTest(settings, port).measure();
+            return new Run(threads, results, modelStub.peakInFlight());
+        }
+    }
+
+    private Map<Endpoint, LatencyRecorder> measure() throws Exception {
+        System.out.printf("Seeding %d users%n", this.settings.users());
+        for (int i = 0; i < this.settings.users(); i++) {
+            this.send(Endpoint.CREATE, this.createRequest());
+        }
+
+        System.out.printf("Running %d workers: %s warmup, %s measured%n",
+            this.settings.concurrency(), this.settings.warmup(), this.settings.duration());
+        long measureFrom = System.nanoTime() + this.settings.warmup().toNanos();
+        long measureUntil = measureFrom + this.settings.duration().toNanos();
+
+        List<Future<Map<Endpoint, LatencyRecorder>>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < this.settings.concurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(i);
+                workers.add(executor.submit(() -> this.work(random, measureFrom, measureUntil)));
+            }
+        }
+
+        Map<Endpoint, LatencyRecorder> results = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            results.put(endpoint, new LatencyRecorder());
+        }
+        for (Future<Map<Endpoint, LatencyRecorder>> worker : workers) {
+            worker.get().forEach((endpoint, recorder) -> results.get(endpoint).merge(recorder));
+        }
+        return results;
+    }
+
+    private Map<Endpoint, LatencyRecorder> work(SplittableRandom random, long measureFrom, long measureUntil) {
+        Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+        int totalWeight = this.settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+
+        while (System.nanoTime() < measureUntil) {
+            Endpoint endpoint = this.pick(random.nextInt(totalWeight));
+            HttpRequest request = switch (endpoint) {
+                case CREATE -> this.createRequest();
+                case UPDATE -> this.updateRequest(this.seededEmail(random), random);
+                case PROFILE -> this.profileRequest(this.seededEmail(random));
+                case PREDICT -> this.predictRequest(this.seededEmail(random));
+            };
+
+            long start = System.nanoTime();
+            boolean error = !this.send(endpoint, request);
+            if (start >= measureFrom) {
+                recorders.get(endpoint).record(System.nanoTime() - start, error);
+            }
+        }
+        return recorders;
+    }
+
+    private Endpoint pick(int roll) {
+        for (Map.Entry<Endpoint, Integer> entry : this.settings.mix().entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Traffic mix is empty");
+    }
+
+    private boolean send(Endpoint endpoint, HttpRequest request) {
+        try {
+            HttpResponse<Void> response = this.client.send(request, HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Seeded users are user-0 ... user-(users - 1); users created during the run come after them
+    private String seededEmail(SplittableRandom random) {
+        return "user-" + random.nextInt(this.settings.users()) + "@loadtest.example.com";
+    }
+
+    private HttpRequest createRequest() {
+        String email = "user-" + this.nextUser.getAndIncrement() + "@loadtest.example.com";
+        return this.json("POST", "/user", """
+            {"email":"%s","password":"loadtest-password","first_name":"Load","last_name":"Test",\
+            "age":35,"sex":"female","height_in":65.00,"weight_lbs":140.00}""".formatted(email));
+    }
+
+    private HttpRequest updateRequest(String email, SplittableRandom random) {
+        return this.json("PATCH", "/user", """
+            {"email":"%s","weight_lbs":%d.00}""".formatted(email, 120 + random.nextInt(60)));
+    }
+
+    private HttpRequest profileRequest(String email) {
+        return HttpRequest.newBuilder(URI.create(this.baseUrl + "/profile/" + email)).GET().build();
+    }
+
+    private HttpRequest predictRequest(String email) {
+        if (this.settings.repeatPredictions()) {
+            return this.json("POST", "/predict/" + email, this.breathData + "]");
+        }
+        return this.json("POST", "/predict/" + email, this.breathData + "," + this.uniqueSample() + "]");
+    }
+
+    // Ends each upload with a sample no earlier upload had, so every prediction
+    // misses the inference cache and reaches the model. Steps through the
+    // floats in [1, 2), of which there are 2^23, without rebuilding the rest.
+    private float uniqueSample() {
+        long upload = this.nextUpload.getAndIncrement() % (1 << 23);
+        return Float.intBitsToFloat(Float.floatToRawIntBits(1f) + (int) upload);
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(this.baseUrl + path))
+            .header("Content-Type", "application/json")
+            .method(method, HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    // A few breath cycles in the spirometer's 0-5V range, as in the benchmarks,
+    // without the closing bracket so a final sample can be appended
+    private static String breathData(int samples) {
+        SplittableRandom random = new SplittableRandom(26);
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < samples; i++) {
+            double cycle = Math.sin(i * 2 * Math.PI / 500);
+            float sample = (float) Math.max(0, 2.5 + 2.0 * cycle + random.nextGaussian() * 0.05);
+            json.append(i == 0 ? "" : ",").append(sample);
+        }
+        return json.toString();
+    }
+
+    private static void report(Settings settings, List<Run> runs) throws IOException {
+        double seconds = settings.duration().toNanos() / 1e9;
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"settings\": \"").append(settings).append("\",\n");
+        json.append("  \"runs\": {");
+        String runSeparator = "\n";
+        for (Run run : runs) {
+            System.out.printf("%n%s threads%n%-8s %9s %7s %9s %9s %9s %9s %9s%n", run.threads(),
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms");
+            json.append(runSeparator).append("    \"").append(run.threads()).append("\": {\n");
+            json.append("      \"endpoints\": {");
+            String separator = "\n";
+            for (Map.Entry<Endpoint, LatencyRecorder> entry : run.results().entrySet()) {
+                LatencyRecorder recorder = entry.getValue();
+                double[] p = recorder.percentiles(PERCENTILES);
+                double throughput = recorder.count() / seconds;
+                System.out.printf(Locale.ROOT, "%-8s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), recorder.count(), recorder.errors(),
+                    throughput, p[0], p[1], p[2], p[3]);
+                json.append(separator).append(String.format(Locale.ROOT,
+                    "        \"%s\": {\"requests\": %d, \"errors\": %d, \"throughput\": %.1f, "
+                        + "\"p50\": %.3f, \"p90\": %.3f, \"p99\": %.3f, \"p999\": %.3f}",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), recorder.count(), recorder.errors(),
+                    throughput, p[0], p[1], p[2], p[3]));
+                separator = ",\n";
+            }
+            json.append("\n      },\n");
+            // Above the server's thread count only if predictions do not hold a request thread
+            System.out.printf("Peak model calls in flight: %d%n", run.modelPeakInFlight());
+            json.append("      \"model_peak_in_flight\": ").append(run.modelPeakInFlight()).append("\n    }");
+            runSeparator = ",\n";
+        }
+        json.append("\n  }\n}\n");
+
+        if (runs.size() > 1) {
+            compare(runs, seconds);
+        }
+
+        Files.createDirectories(settings.output().toAbsolutePath().getParent());
+        Files.writeString(settings.output(), json);
+        System.out.printf("%nResults written to %s%n", settings.output());
+    }
+
+    // Each mode's throughput and p99 relative to the first mode listed
+    private static void compare(List<Run> runs, double seconds) {
+        Run baseline = runs.getFirst();
+        System.out.printf("%nCompared with %s threads%n%-8s %-9s %9s %9s %9s %9s%n",
+            baseline.threads(), "endpoint", "threads", "req/s", "change", "p99 ms", "change");
+        for (Endpoint endpoint : List.of(Endpoint.PROFILE, Endpoint.PREDICT)) {
+            LatencyRecorder base = baseline.results().get(endpoint);
+            double baseThroughput = base.count() / seconds;
+            double baseP99 = base.percentiles(99)[0];
+            for (Run run : runs) {
+                LatencyRecorder recorder = run.results().get(endpoint);
+                double throughput = recorder.count() / seconds;
+                double p99 = recorder.percentiles(99)[0];
+                System.out.printf(Locale.ROOT, "%-8s %-9s %9.1f %+8.1f%% %9.2f %+8.1f%%%n",
+                    endpoint.name().toLowerCase(Locale.ROOT), run.threads(),
+                    throughput, change(throughput, baseThroughput), p99, change(p99, baseP99));
+            }
+        }
+    }
+
+    private static double change(double value, double baseline) {
+        return baseline == 0 ? 0 : (value - baseline) / baseline * 100;
+    }
+}
@@ -0,0 +1,154 @@
+package com.th26.usermanagement.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Stand-in for the model service's {@code /predict}, {@code /predict/binary}
+ * and {@code /predict/batch} endpoints. Binary frames are checked as the
+ * model service checks them, so a malformed frame is rejected at once. Each
+ * other call sleeps for the configured latency plus up to {@code jitter},
+ * then fails with a 500 at the configured error rate. The
+ * highest number of calls in progress at once is kept, to show how many
+ * predictions the service had in flight.
+ */
+final class ModelStub implements AutoCloseable {
+    static final String DIAGNOSIS = "Asthma";
+
+    // Little-endian: version (u8), sex (u8), height (f32), weight (f32), sample count (u32)
+    private static final int FRAME_HEADER_BYTES = 14;
+    private static final int FRAME_VERSION = 1;
+
+    private final HttpServer server;
+    private final Duration latency;
+    private final Duration jitter;
+    private final double errorRate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    ModelStub(Duration latency, Duration jitter, double errorRate) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/model/api/predict", this::handle);
+        this.server.start();
+    }
+
+    String endpoint() {
+        return "http://localhost:" + this.server.getAddress().getPort() + "/model/api";
+    }
+
+    int peakInFlight() {
+        return this.peakInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.peakInFlight.accumulateAndGet(this.inFlight.incrementAndGet(), Math::max);
+        try (exchange) {
+            byte[] body = readBody(exchange);
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/binary")) {
+                int status = checkFrame(body);
+                if (status != 200) {
+                    respond(exchange, status, "text/plain", status == 400 ? "Malformed breath frame" : "Invalid breath frame values");
+                    return;
+                }
+            }
+
+            long delay = this.latency.toMillis();
+            if (!this.jitter.isZero()) {
+                delay += ThreadLocalRandom.current().nextLong(this.jitter.toMillis() + 1);
+            }
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if (ThreadLocalRandom.current().nextDouble() < this.errorRate) {
+                respond(exchange, 500, "text/plain", "Model inference failed");
+            } else if (path.endsWith("/batch")) {
+                // One result per input; each input carries exactly one breath_data field
+                int inputs = new String(body, StandardCharsets.UTF_8).split("\"breath_data\"", -1).length - 1;
+                StringBuilder results = new StringBuilder("[");
+                for (int i = 0; i < inputs; i++) {
+                    results.append(i == 0 ? "" : ",").append('"').append(DIAGNOSIS).append('"');
+                }
+                respond(exchange, 200, "application/json", results.append(']').toString());
+            } else {
+                respond(exchange, 200, "text/plain", DIAGNOSIS);
+            }
+        } finally {
+            this.inFlight.decrementAndGet();
+        }
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        return in.readAllBytes();
+    }
+
+    // The status the model service answers a binary frame with before running
+    // inference: 400 if the frame is malformed, 422 if a value is not positive,
+    // as ModelInput requires, and 200 otherwise
+    private static int checkFrame(byte[] frame) {
+        ByteBuffer buffer = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            int version = Byte.toUnsignedInt(buffer.get());
+            int sex = Byte.toUnsignedInt(buffer.get());
+            float height = buffer.getFloat();
+            float weight = buffer.getFloat();
+            long count = Integer.toUnsignedLong(buffer.getInt());
+            if (version != FRAME_VERSION || sex > 1 || frame.length != FRAME_HEADER_BYTES + Float.BYTES * count) {
+                return 400;
+            }
+            if (!(height > 0) || !(weight > 0) || count == 0) {
+                return 422;
+            }
+            for (long i = 0; i < count; i++) {
+                // Also rejects NaN
+                if (!(buffer.getFloat() > 0)) {
+                    return 422;
+                }
+            }
+            return 200;
+        } catch (BufferUnderflowException e) {
+            // Shorter than the header
+            return 400;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.server.stop(0);
+    }
+}
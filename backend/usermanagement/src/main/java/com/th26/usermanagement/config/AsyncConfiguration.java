@@ -0,0 +1,49 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfiguration {
+    // Model calls run here instead of on Tomcat's request threads, so a slow
+    // model fills this queue rather than starving /user and /profile traffic.
+    // With virtual threads every call gets its own thread, and the same number
+    // of calls is admitted as the platform pool plus its queue would hold.
+    @Bean
+    public AsyncTaskExecutor modelExecutor(
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+        @Value("${com.th26.model.executor.pool-size}") int poolSize,
+        @Value("${com.th26.model.executor.queue-capacity}") int queueCapacity
+    ) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("model-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(poolSize + queueCapacity);
+            executor.setRejectTasksWhenLimitReached(true);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("model-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Reads finished jobs for their event-stream subscribers, so the worker or
+    // sweeper thread that reports a job finished never runs those reads itself
+    @Bean
+    public AsyncTaskExecutor jobEventExecutor(@Value("${com.th26.jobs.event-threads}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("job-events-");
+        return executor;
+    }
+}
@@ -0,0 +1,50 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfiguration {
+    public static final String PROFILES = "profiles";
+    public static final String INFERENCES = "inferences";
+
+    // Cache key for methods taking an email parameter, so that differently
+    // cased spellings of one address share an entry
+    public static final String EMAIL_KEY = "T(com.th26.usermanagement.entities.User).emailKey(#email)";
+    // The same key for methods taking a request body with an email field
+    public static final String REQUEST_EMAIL_KEY = "T(com.th26.usermanagement.entities.User).emailKey(#request.email)";
+
+    // Evictions are deferred until the surrounding transaction commits,
+    // so a concurrent read cannot repopulate the cache with the old row.
+    @Bean
+    public CacheManager cacheManager(
+        @Value("${com.th26.cache.profiles.maximum-size}") long profilesMaximumSize,
+        @Value("${com.th26.cache.profiles.time-to-live}") Duration profilesTimeToLive,
+        @Value("${com.th26.cache.inferences.maximum-size}") long inferencesMaximumSize,
+        @Value("${com.th26.cache.inferences.time-to-live}") Duration inferencesTimeToLive
+    ) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        cacheManager.registerCustomCache(PROFILES, Caffeine.newBuilder()
+            .maximumSize(profilesMaximumSize)
+            .expireAfterWrite(profilesTimeToLive)
+            .recordStats()
+            .build());
+        cacheManager.registerCustomCache(INFERENCES, Caffeine.newBuilder()
+            .maximumSize(inferencesMaximumSize)
+            .expireAfterWrite(inferencesTimeToLive)
+            .recordStats()
+            .build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,92 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfiguration {
+    // The pool for spring.datasource.*, configured as Boot would configure it.
+    // Not a candidate for injection; everything uses the routing data source below.
+    @Bean(defaultCandidate = false)
+    public HikariDataSource primaryDataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    // Replica pools copy the primary's settings apart from the URL and size.
+    // A replica may fall up to max-lag behind and go unnoticed for up to one
+    // health-check interval, so a user's reads must stay on the primary for
+    // longer than both after a write, or a stale profile read from a replica
+    // could be cached for its full time to live.
+    @Bean(defaultCandidate = false)
+    public ReplicaRoutingDataSource replicaDataSource(
+        @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.datasource.replicas.urls}") List<String> urls,
+        @Value("${com.th26.datasource.replicas.maximum-pool-size}") int maximumPoolSize,
+        @Value("${com.th26.datasource.replicas.health-check-interval}") Duration healthCheckInterval,
+        @Value("${com.th26.datasource.replicas.max-lag}") Duration maxLag,
+        @Value("${com.th26.datasource.read-your-writes-window}") Duration readYourWritesWindow
+    ) {
+        boolean replicasConfigured = urls.stream().anyMatch(url -> !url.isBlank());
+        if (replicasConfigured && readYourWritesWindow.compareTo(maxLag.plus(healthCheckInterval)) <= 0) {
+            throw new IllegalArgumentException(
+                "com.th26.datasource.read-your-writes-window must exceed com.th26.datasource.replicas.max-lag"
+                    + " plus com.th26.datasource.replicas.health-check-interval"
+            );
+        }
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            primaryDataSource.copyStateTo(config);
+            config.setJdbcUrl(url.strip());
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setReadOnly(true);
+            config.setMetricRegistry(null);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, meterRegistry, healthCheckInterval, maxLag);
+    }
+
+    // Connections are fetched on first use rather than when the transaction
+    // begins, by which point a read-only transaction has marked its connection
+    // read-only and can be sent to a replica instead of the primary.
+    @Bean
+    @Primary
+    public DataSource dataSource(
+        @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+        @Qualifier("replicaDataSource") ReplicaRoutingDataSource replicaDataSource
+    ) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        if (replicaDataSource.hasReplicas()) {
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,172 @@
+package com.th26.usermanagement.config;
+
+import org.apache.hc.client5.http.classic.HttpClient;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request factory that aborts any exchange still running once the total
+ * deadline has passed. Connect and read timeouts only bound individual socket
+ * operations, so a peer trickling bytes could otherwise hold a connection forever.
+ *
+ * <p>The deadline runs from {@code execute()} until the response is closed,
+ * at which point the abort is withdrawn, so a finished exchange (and the body
+ * it sent) is not kept reachable until the deadline would have passed.
+ */
+public class DeadlineHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+    private final Duration deadline;
+    private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(
+        1, Thread.ofPlatform().name("model-client-deadline").daemon().factory()
+    );
+    // Passes the request built by createHttpUriRequest to createRequest, which
+    // wraps it; both run on the caller's thread within one createRequest call
+    private final ThreadLocal<Cancellable> created = new ThreadLocal<>();
+
+    public DeadlineHttpRequestFactory(HttpClient httpClient, Duration deadline) {
+        super(httpClient);
+        this.deadline = deadline;
+        // Otherwise withdrawn aborts stay queued, holding their request, until they are due
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        ClientHttpRequest request;
+        Cancellable cancellable;
+        try {
+            request = super.createRequest(uri, httpMethod);
+            cancellable = this.created.get();
+        } finally {
+            this.created.remove();
+        }
+        return cancellable == null ? request : new DeadlineRequest(request, cancellable);
+    }
+
+    @Override
+    protected ClassicHttpRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+        ClassicHttpRequest request = super.createHttpUriRequest(httpMethod, uri);
+        if (request instanceof Cancellable cancellable) {
+            this.created.set(cancellable);
+        }
+        return request;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        this.scheduler.shutdownNow();
+        super.destroy();
+    }
+
+    private final class DeadlineRequest implements ClientHttpRequest, StreamingHttpOutputMessage {
+        private final ClientHttpRequest delegate;
+        private final Cancellable cancellable;
+
+        private DeadlineRequest(ClientHttpRequest delegate, Cancellable cancellable) {
+            this.delegate = delegate;
+            this.cancellable = cancellable;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            ScheduledFuture<?> abort = DeadlineHttpRequestFactory.this.scheduler.schedule(
+                this.cancellable::cancel, DeadlineHttpRequestFactory.this.deadline.toMillis(), TimeUnit.MILLISECONDS
+            );
+            try {
+                return new DeadlineResponse(this.delegate.execute(), abort);
+            } catch (IOException | RuntimeException | Error e) {
+                abort.cancel(false);
+                throw e;
+            }
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return this.delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return this.delegate.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return this.delegate.getAttributes();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.delegate.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return this.delegate.getBody();
+        }
+
+        // The Apache request streams its body; keep that rather than buffering it here
+        @Override
+        public void setBody(Body body) {
+            ((StreamingHttpOutputMessage) this.delegate).setBody(body);
+        }
+
+        @Override
+        public void setBody(byte[] body) throws IOException {
+            ((StreamingHttpOutputMessage) this.delegate).setBody(body);
+        }
+    }
+
+    private static final class DeadlineResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final ScheduledFuture<?> abort;
+
+        private DeadlineResponse(ClientHttpResponse delegate, ScheduledFuture<?> abort) {
+            this.delegate = delegate;
+            this.abort = abort;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return this.delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return this.delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return this.delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return this.delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            this.abort.cancel(false);
+            this.delegate.close();
+        }
+    }
+}
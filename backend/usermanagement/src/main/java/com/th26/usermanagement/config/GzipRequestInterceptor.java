@@ -0,0 +1,42 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzips outbound request bodies. Bodies under {@code minSize} are sent as-is,
+ * since compressing them costs more CPU than the bytes it saves.
+ */
+public class GzipRequestInterceptor implements ClientHttpRequestInterceptor {
+    private final int minSize;
+
+    public GzipRequestInterceptor(int minSize) {
+        this.minSize = minSize;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+        HttpRequest request,
+        byte[] body,
+        ClientHttpRequestExecution execution
+    ) throws IOException {
+        if (body.length < this.minSize) {
+            return execution.execute(request, body);
+        }
+
+        // Breath data JSON is mostly digits and commas, so it typically shrinks severalfold
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+        request.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return execution.execute(request, compressed.toByteArray());
+    }
+}
@@ -0,0 +1,75 @@
+package com.th26.usermanagement.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class ModelClientConfiguration {
+    @Bean
+    public DeadlineHttpRequestFactory modelRequestFactory(
+        @Value("${com.th26.model.client.max-connections}") int maxConnections,
+        @Value("${com.th26.model.client.keep-alive}") Duration keepAlive,
+        @Value("${com.th26.model.client.connect-timeout}") Duration connectTimeout,
+        @Value("${com.th26.model.client.read-timeout}") Duration readTimeout,
+        @Value("${com.th26.model.client.pool-timeout}") Duration poolTimeout,
+        @Value("${com.th26.model.client.deadline}") Duration deadline
+    ) {
+        // Every call goes to the same host, so the whole pool is available to one route
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                .setResponseTimeout(Timeout.of(readTimeout))
+                .build())
+            // uvicorn does not advertise a Keep-Alive timeout, so cap idle reuse ourselves
+            .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+            .evictIdleConnections(TimeValue.of(keepAlive))
+            .evictExpiredConnections()
+            .build();
+
+        return new DeadlineHttpRequestFactory(httpClient, deadline);
+    }
+
+    @Bean
+    public RestClient modelRestClient(
+        RestClient.Builder builder,
+        @Qualifier("modelRequestFactory") DeadlineHttpRequestFactory modelRequestFactory,
+        @Value("${com.th26.model.endpoint}") String modelEndpoint,
+        @Value("${com.th26.model.client.compression}") String compression,
+        @Value("${com.th26.model.client.compression-min-size}") DataSize compressionMinSize
+    ) {
+        builder
+            .baseUrl(modelEndpoint)
+            .requestFactory(modelRequestFactory);
+        // Only enable once the model service accepts gzip bodies
+        if (compression.equalsIgnoreCase("gzip")) {
+            builder.requestInterceptor(new GzipRequestInterceptor(Math.toIntExact(compressionMinSize.toBytes())));
+        }
+        return builder.build();
+    }
+}
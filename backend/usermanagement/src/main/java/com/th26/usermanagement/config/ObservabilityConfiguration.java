@@ -0,0 +1,31 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+
+@Configuration
+public class ObservabilityConfiguration {
+    // Adds a low-cardinality "controller" tag to http.server.requests so latency
+    // can be broken down per controller as well as per URI.
+    @Bean
+    public ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new DefaultServerRequestObservationConvention() {
+            @Override
+            public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+                Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+                String controller = handler instanceof HandlerMethod handlerMethod
+                    ? handlerMethod.getBeanType().getSimpleName()
+                    : "none";
+                return super.getLowCardinalityKeyValues(context).and(KeyValue.of("controller", controller));
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.th26.usermanagement.services.PredictRateLimiter;
+
+import java.util.Map;
+
+/**
+ * Applies {@link PredictRateLimiter} to prediction requests, and to job
+ * submissions since each becomes a prediction, before their body is read, so
+ * a rejected request costs neither parsing nor a profile lookup.
+ */
+@Component
+public class PredictRateLimitInterceptor implements HandlerInterceptor {
+    private final PredictRateLimiter rateLimiter;
+
+    public PredictRateLimitInterceptor(PredictRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // An async prediction is dispatched again to write its result; it was
+        // already counted when it arrived
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (pathVariables != null && pathVariables.get("email") != null) {
+            this.rateLimiter.acquire(pathVariables.get("email"));
+        }
+        return true;
+    }
+}
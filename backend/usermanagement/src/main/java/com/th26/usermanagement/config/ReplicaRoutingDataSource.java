@@ -0,0 +1,168 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import com.th26.usermanagement.services.ReadYourWrites;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions, spread round-robin across
+ * the healthy replicas.
+ *
+ * <p>A replica is taken out of rotation when a health check finds it
+ * unreachable or lagging more than {@code max-lag} behind the primary, or when
+ * a connection to it cannot be obtained, and is put back once a later health
+ * check passes. When no replica is healthy, or the caller must see its own
+ * recent write (see {@link ReadYourWrites}), the connection comes from the
+ * primary instead.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    // Zero when the replica has replayed everything it received, since the last
+    // replay timestamp only moves when there is something to replay
+    private static final String LAG_QUERY = """
+        select case
+            when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+            else extract(epoch from now() - pg_last_xact_replay_timestamp())
+        end
+        """;
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+
+    private final ScheduledExecutorService healthChecker = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("replica-health").daemon().factory()
+    );
+
+    private static final class Replica {
+        final HikariDataSource dataSource;
+        final Counter reads;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource dataSource, Counter reads) {
+            this.dataSource = dataSource;
+            this.reads = reads;
+        }
+    }
+
+    public ReplicaRoutingDataSource(
+        HikariDataSource primary,
+        List<HikariDataSource> replicas,
+        MeterRegistry meterRegistry,
+        Duration healthCheckInterval,
+        Duration maxLag
+    ) {
+        this.primary = primary;
+        this.maxLag = maxLag;
+        this.primaryReads = Counter.builder("datasource.reads")
+            .description("Read-only transactions, by the pool that served them")
+            .tag("pool", "primary")
+            .register(meterRegistry);
+        this.replicas = replicas.stream()
+            .map(dataSource -> new Replica(dataSource, Counter.builder("datasource.reads")
+                .description("Read-only transactions, by the pool that served them")
+                .tag("pool", dataSource.getPoolName())
+                .register(meterRegistry)))
+            .toList();
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                .description("Whether the replica is in rotation for read-only transactions")
+                .tag("pool", replica.dataSource.getPoolName())
+                .register(meterRegistry);
+        }
+        if (!this.replicas.isEmpty()) {
+            this.healthChecker.scheduleWithFixedDelay(
+                this::checkHealth, 0, healthCheckInterval.toMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    public boolean hasReplicas() {
+        return !this.replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReadYourWrites.isPrimaryRequired()) {
+            int start = Math.floorMod(this.next.getAndIncrement(), Math.max(this.replicas.size(), 1));
+            for (int i = 0; i < this.replicas.size(); i++) {
+                Replica replica = this.replicas.get((start + i) % this.replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replica.reads.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    this.markUnhealthy(replica, e.getMessage());
+                }
+            }
+        }
+        this.primaryReads.increment();
+        return this.primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    private void checkHealth() {
+        for (Replica replica : this.replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery(LAG_QUERY)) {
+                result.next();
+                Duration lag = Duration.ofMillis((long) (result.getDouble(1) * 1000));
+                if (lag.compareTo(this.maxLag) > 0) {
+                    this.markUnhealthy(replica, "lagging " + lag + " behind the primary");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    logger.info("Replica {} is back in rotation", replica.dataSource.getPoolName());
+                }
+            } catch (SQLException e) {
+                this.markUnhealthy(replica, e.getMessage());
+            }
+        }
+    }
+
+    private void markUnhealthy(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("Replica {} taken out of rotation: {}", replica.dataSource.getPoolName(), reason);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.healthChecker.shutdownNow();
+        for (Replica replica : this.replicas) {
+            replica.dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Inflates request bodies sent with {@code Content-Encoding: gzip} or
+ * {@code zstd}, so mobile clients can upload recordings compressed.
+ *
+ * <p>The body is inflated up front and capped at {@code max-inflated-size};
+ * without the cap a few kilobytes of compressed zeros could expand into
+ * gigabytes. Controllers see an ordinary, unencoded request.
+ */
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+    private static final String SUPPORTED_ENCODINGS = "gzip, zstd";
+
+    private final int maxInflatedSize;
+
+    public RequestDecompressionFilter(
+        @Value("${com.th26.compression.request.max-inflated-size}") DataSize maxInflatedSize
+    ) {
+        this.maxInflatedSize = Math.toIntExact(maxInflatedSize.toBytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        FilterChain filterChain
+    ) throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase(Locale.ROOT);
+        if (!encoding.equals("gzip") && !encoding.equals("zstd")) {
+            response.setHeader(HttpHeaders.ACCEPT_ENCODING, SUPPORTED_ENCODINGS);
+            response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(), "Unsupported media type - content encoding must be one of " + SUPPORTED_ENCODINGS);
+            return;
+        }
+
+        byte[] body;
+        try (InputStream in = encoding.equals("gzip")
+                ? new GZIPInputStream(request.getInputStream())
+                : new ZstdInputStream(request.getInputStream())) {
+            body = in.readNBytes(this.maxInflatedSize + 1);
+        } catch (IOException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Bad request - body is not valid " + encoding);
+            return;
+        }
+        if (body.length > this.maxInflatedSize) {
+            response.sendError(HttpStatus.CONTENT_TOO_LARGE.value(), "Content too large - inflated body exceeds the size limit");
+            return;
+        }
+
+        filterChain.doFilter(new InflatedRequest(request, body), response);
+    }
+
+    private static final class InflatedRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        InflatedRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(this.body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return in.read(buffer, offset, length);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        listener.onDataAvailable();
+                        listener.onAllDataRead();
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = this.getCharacterEncoding() != null
+                ? Charset.forName(this.getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(this.getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return this.body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return this.body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return null;
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Integer.toString(this.body.length);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                return Collections.emptyEnumeration();
+            }
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.enumeration(Collections.singletonList(Integer.toString(this.body.length)));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name))
+                .toList());
+        }
+    }
+}
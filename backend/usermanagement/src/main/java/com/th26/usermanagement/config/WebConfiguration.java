@@ -0,0 +1,20 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    private final PredictRateLimitInterceptor predictRateLimitInterceptor;
+
+    public WebConfiguration(PredictRateLimitInterceptor predictRateLimitInterceptor) {
+        this.predictRateLimitInterceptor = predictRateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this.predictRateLimitInterceptor)
+            .addPathPatterns("/usermanagement/api/predict/**", "/usermanagement/api/jobs/*");
+    }
+}
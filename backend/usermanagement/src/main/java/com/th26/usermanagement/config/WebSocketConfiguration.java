@@ -0,0 +1,51 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import com.th26.usermanagement.controllers.BreathStreamHandler;
+
+import java.util.List;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfiguration implements WebSocketConfigurer {
+    private final BreathStreamHandler breathStreamHandler;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfiguration(
+        BreathStreamHandler breathStreamHandler,
+        @Value("${com.th26.stream.allowed-origins}") List<String> allowedOrigins
+    ) {
+        this.breathStreamHandler = breathStreamHandler;
+        this.allowedOrigins = allowedOrigins.stream()
+            .map(String::trim)
+            .filter(origin -> !origin.isEmpty())
+            .toArray(String[]::new);
+    }
+
+    // With no origins configured, browsers may only open a stream from the
+    // API's own origin; clients that send no Origin header are not affected
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(this.breathStreamHandler, "/usermanagement/api/stream/*")
+            .setAllowedOrigins(this.allowedOrigins);
+    }
+
+    // Caps a single sample message; a stream is any number of messages
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer(
+        @Value("${com.th26.stream.max-message-size}") DataSize maxMessageSize
+    ) {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(Math.toIntExact(maxMessageSize.toBytes()));
+        container.setMaxTextMessageBufferSize(1024);
+        return container;
+    }
+}
@@ -0,0 +1,313 @@
+package com.th26.usermanagement.controllers;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriUtils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tools.jackson.databind.ObjectMapper;
+
+import com.th26.usermanagement.dtos.requests.BreathSamples;
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.dtos.responses.StreamResultResponse;
+import com.th26.usermanagement.exceptions.InvalidBreathDataException;
+import com.th26.usermanagement.exceptions.RateLimitExceededException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+import com.th26.usermanagement.services.BreathRingBuffer;
+import com.th26.usermanagement.services.ModelService;
+import com.th26.usermanagement.services.PredictRateLimiter;
+import com.th26.usermanagement.services.ProfileService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Live breath streaming at {@code /usermanagement/api/stream/{email}}.
+ *
+ * <p>The client sends binary messages of little-endian float32 samples as they
+ * arrive from the sensor. The most recent samples are kept in a bounded ring
+ * buffer, and each time {@code step} new samples have arrived the latest
+ * {@code window-size} samples are sent for inference. Each result is pushed
+ * back as a {@link StreamResultResponse}. At most one inference per session is
+ * in flight; windows that come due meanwhile are folded into the next one,
+ * which starts as soon as the one in flight completes. A window over the
+ * prediction rate limit is held and taken once the limit allows it.
+ * The profile is looked up once, when the session opens.
+ *
+ * <p>An empty binary message ends the stream: samples that arrived since the
+ * last window are inferred once more, and the session is closed once that
+ * result has been sent.
+ */
+@Component
+public class BreathStreamHandler extends BinaryWebSocketHandler implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(BreathStreamHandler.class);
+    private static final String STATE_ATTRIBUTE = BreathStreamHandler.class.getName() + ".state";
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", Pattern.CASE_INSENSITIVE);
+
+    private final ProfileService profileService;
+    private final ModelService modelService;
+    private final PredictRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final int bufferCapacity;
+    private final int windowSize;
+    private final int step;
+    private final int sendTimeLimit;
+    private final int sendBufferSize;
+
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("breath-stream-retry").daemon().factory()
+    );
+
+    private static final class StreamState {
+        final String email;
+        final ProfileResponse profile;
+        final BreathRingBuffer buffer;
+        final WebSocketSession session;
+        // Guarded by the state itself: samples arrive on the message thread,
+        // while completed inferences pick up pending windows on model threads
+        boolean inferring;
+        boolean ending;
+        // A rate-limited window is waiting for the limit to allow it
+        boolean retryScheduled;
+        boolean closed;
+        long windows;
+        long sinceLastWindow;
+
+        StreamState(String email, ProfileResponse profile, BreathRingBuffer buffer, WebSocketSession session) {
+            this.email = email;
+            this.profile = profile;
+            this.buffer = buffer;
+            this.session = session;
+        }
+    }
+
+    public BreathStreamHandler(
+        ProfileService profileService,
+        ModelService modelService,
+        PredictRateLimiter rateLimiter,
+        ObjectMapper objectMapper,
+        @Value("${com.th26.stream.buffer-capacity}") int bufferCapacity,
+        @Value("${com.th26.stream.window-size}") int windowSize,
+        @Value("${com.th26.stream.step}") int step,
+        @Value("${com.th26.stream.send-time-limit}") Duration sendTimeLimit,
+        @Value("${com.th26.stream.send-buffer-size}") int sendBufferSize
+    ) {
+        if (windowSize > bufferCapacity) {
+            throw new IllegalArgumentException("com.th26.stream.window-size must not exceed com.th26.stream.buffer-capacity");
+        }
+        this.profileService = profileService;
+        this.modelService = modelService;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.bufferCapacity = bufferCapacity;
+        this.windowSize = windowSize;
+        this.step = step;
+        this.sendTimeLimit = Math.toIntExact(sendTimeLimit.toMillis());
+        this.sendBufferSize = sendBufferSize;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        String path = session.getUri() == null ? "" : session.getUri().getRawPath();
+        String email = UriUtils.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+        if (!EMAIL.matcher(email).matches()) {
+            session.close(CloseStatus.BAD_DATA.withReason("Bad request - invalid email format"));
+            return;
+        }
+
+        ProfileResponse profile;
+        try {
+            profile = this.profileService.getProfileByEmail(email);
+        } catch (UserNotFoundException e) {
+            session.close(CloseStatus.POLICY_VIOLATION.withReason(e.getMessage()));
+            return;
+        }
+
+        // Results are sent from model threads while messages are still being
+        // received, so sends go through a decorator that serializes them
+        WebSocketSession concurrentSession = new ConcurrentWebSocketSessionDecorator(session, this.sendTimeLimit, this.sendBufferSize);
+        session.getAttributes().put(STATE_ATTRIBUTE, new StreamState(email, profile, new BreathRingBuffer(this.bufferCapacity), concurrentSession));
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        StreamState state = (StreamState) session.getAttributes().get(STATE_ATTRIBUTE);
+        if (state == null) {
+            return;
+        }
+
+        ByteBuffer payload = message.getPayload();
+        if (!payload.hasRemaining()) {
+            synchronized (state) {
+                state.ending = true;
+            }
+            this.inferPending(state);
+            return;
+        }
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        float[] samples;
+        try {
+            samples = BreathSamples.fromFloat32(bytes);
+        } catch (InvalidBreathDataException e) {
+            session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+            return;
+        }
+
+        synchronized (state) {
+            // Samples sent after the end of the stream are ignored
+            if (state.ending) {
+                return;
+            }
+            state.buffer.add(samples);
+            state.sinceLastWindow += samples.length;
+        }
+        this.inferPending(state);
+    }
+
+    // Runs when samples arrive, when the stream ends and when an inference
+    // completes, so a window that came due while another was in flight is not
+    // left waiting for the next message. Once the stream has ended, whatever
+    // arrived since the last window is inferred, even if fewer than step
+    // samples, and the session is closed when nothing is left.
+    private void inferPending(StreamState state) {
+        float[] samples;
+        long window;
+        long endSample;
+        boolean close = false;
+        Duration retryAfter = null;
+        synchronized (state) {
+            if (state.inferring || state.retryScheduled || state.closed) {
+                return;
+            }
+            boolean due = state.ending
+                ? state.sinceLastWindow > 0
+                : state.buffer.size() >= this.windowSize && state.sinceLastWindow >= this.step;
+            if (due) {
+                try {
+                    this.rateLimiter.acquire(state.email);
+                } catch (RateLimitExceededException e) {
+                    // Retried once the limit allows, rather than on the next
+                    // message, which never comes for the tail of an ended stream
+                    due = false;
+                    retryAfter = e.getRetryAfter();
+                    state.retryScheduled = true;
+                }
+            }
+            if (due) {
+                state.inferring = true;
+                window = state.windows++;
+                endSample = state.buffer.total();
+                state.sinceLastWindow = 0;
+                // A stream that ends before filling a window is inferred as a whole
+                samples = state.buffer.latest(Math.min(this.windowSize, state.buffer.size()));
+            } else {
+                close = state.ending && retryAfter == null;
+                samples = null;
+                window = -1;
+                endSample = -1;
+            }
+        }
+        if (samples == null) {
+            if (retryAfter != null) {
+                this.retryLater(state, retryAfter);
+            } else if (close) {
+                this.close(state);
+            }
+            return;
+        }
+
+        CompletableFuture<ResponseEntity<byte[]>> result;
+        try {
+            result = this.modelService.runInferenceAsync(state.profile, samples);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((response, ex) -> {
+            StreamResultResponse.StreamResultResponseBuilder update = StreamResultResponse.builder()
+                .window(window)
+                .endSample(endSample);
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                update.error(cause.getMessage());
+            } else {
+                update.diagnosis(new String(response.getBody(), StandardCharsets.UTF_8));
+            }
+            this.send(state, update.build());
+            // Only after sending, so the end of the stream cannot close the
+            // session before this result is out
+            synchronized (state) {
+                state.inferring = false;
+            }
+            this.inferPending(state);
+        });
+    }
+
+    private void retryLater(StreamState state, Duration retryAfter) {
+        try {
+            this.retryScheduler.schedule(() -> {
+                synchronized (state) {
+                    state.retryScheduled = false;
+                }
+                this.inferPending(state);
+            }, retryAfter.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            this.close(state);
+        }
+    }
+
+    private void close(StreamState state) {
+        try {
+            state.session.close(CloseStatus.NORMAL);
+        } catch (IOException e) {
+            logger.debug("Could not close stream session {}: {}", state.session.getId(), e.getMessage());
+        }
+    }
+
+    private void send(StreamState state, StreamResultResponse update) {
+        if (!state.session.isOpen()) {
+            return;
+        }
+        try {
+            state.session.sendMessage(new TextMessage(this.objectMapper.writeValueAsString(update)));
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Could not push stream result to session {}: {}", state.session.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        StreamState state = (StreamState) session.getAttributes().remove(STATE_ATTRIBUTE);
+        if (state != null) {
+            // Stops a pending retry or a completing inference from starting another
+            synchronized (state) {
+                state.closed = true;
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.retryScheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,146 @@
+package com.th26.usermanagement.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import com.th26.usermanagement.dtos.requests.BreathSamples;
+import com.th26.usermanagement.dtos.responses.JobResponse;
+import com.th26.usermanagement.entities.InferenceJob;
+import com.th26.usermanagement.services.InferenceJobService;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Queued predictions: the breath data is stored as a job and the request
+ * returns straight away with the job's ID. The result is then fetched by
+ * polling the job, or by subscribing to it as a server-sent event stream,
+ * which sends the job once it has finished.
+ */
+@RestController
+@Validated
+@RequestMapping("/usermanagement/api/jobs")
+public class JobController {
+    private final InferenceJobService jobService;
+    private final Duration subscribeTimeout;
+
+    public JobController(
+        InferenceJobService jobService,
+        @Value("${com.th26.jobs.subscribe-timeout}") Duration subscribeTimeout
+    ) {
+        this.jobService = jobService;
+        this.subscribeTimeout = subscribeTimeout;
+    }
+
+    @PostMapping("/{email:.+}")
+    public ResponseEntity<JobResponse> submitJob(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email,
+        @RequestParam(name = "priority", defaultValue = "interactive")
+        @Pattern(regexp = "^(interactive|background)$")
+        String priority,
+        @RequestBody
+        @Size(min=1)
+        List<@DecimalMin(value="0.0", inclusive = false) BigDecimal> inputData
+    ) {
+        return this.accepted(email, this.jobService.submit(email, BreathSamples.fromDecimals(inputData), toPriority(priority)));
+    }
+
+    @PostMapping(value = "/{email:.+}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<JobResponse> submitJobBinary(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email,
+        @RequestParam(name = "priority", defaultValue = "interactive")
+        @Pattern(regexp = "^(interactive|background)$")
+        String priority,
+        @RequestBody
+        byte[] inputData
+    ) {
+        return this.accepted(email, this.jobService.submit(email, BreathSamples.fromFloat32(inputData), toPriority(priority)));
+    }
+
+    @GetMapping("/{email:.+}/{id}")
+    public ResponseEntity<JobResponse> getJob(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email,
+        @PathVariable("id")
+        UUID id
+    ) {
+        return ResponseEntity.ok(this.jobService.getJob(email, id));
+    }
+
+    // Sends a single "job" event once the job has finished, then closes. If it
+    // is still running when the timeout passes the stream just closes, and
+    // the client can subscribe again. However the stream ends, the wait for
+    // the job is cancelled, so repeated subscriptions do not pile up.
+    @GetMapping(value = "/{email:.+}/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToJob(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email,
+        @PathVariable("id")
+        UUID id
+    ) {
+        CompletableFuture<JobResponse> finished = this.jobService.awaitJob(email, id);
+        SseEmitter emitter = new SseEmitter(this.subscribeTimeout.toMillis());
+        emitter.onTimeout(() -> {
+            finished.cancel(false);
+            emitter.complete();
+        });
+        emitter.onError(ex -> finished.cancel(false));
+        emitter.onCompletion(() -> finished.cancel(false));
+        finished.whenComplete((job, ex) -> {
+            if (ex instanceof CancellationException) {
+                return;
+            }
+            try {
+                if (job != null) {
+                    emitter.send(SseEmitter.event().name("job").data(job, MediaType.APPLICATION_JSON));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client has gone, or the stream already timed out
+            }
+        });
+        return emitter;
+    }
+
+    private ResponseEntity<JobResponse> accepted(String email, JobResponse job) {
+        URI location = ServletUriComponentsBuilder.fromCurrentContextPath()
+            .path("/usermanagement/api/jobs/{email}/{id}")
+            .buildAndExpand(email, job.getId())
+            .toUri();
+        return ResponseEntity.status(HttpStatus.ACCEPTED).location(location).body(job);
+    }
+
+    private static InferenceJob.Priority toPriority(String priority) {
+        return InferenceJob.Priority.valueOf(priority.toUpperCase(Locale.ROOT));
+    }
+}
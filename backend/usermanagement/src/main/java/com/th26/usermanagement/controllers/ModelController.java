@@ -1,8 +1,8 @@
 package com.th26.usermanagement.controllers;
 
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -14,10 +14,12 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
+import com.th26.usermanagement.dtos.requests.BreathSamples;
 import com.th26.usermanagement.services.ModelService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @Validated
@@ -29,14 +31,25 @@ public class ModelController {
     }
 
     @PostMapping("/{email:.+}")
-    public ResponseEntity<String> queryModel(
+    public CompletableFuture<ResponseEntity<byte[]>> queryModel(
         @PathVariable("email") 
         @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE) 
         String email,
         @RequestBody
         @Size(min=1)
-        List<@DecimalMin(value="0.0") BigDecimal> inputData
-    ) throws MethodArgumentNotValidException {
-        return this.modelService.runInference(email, inputData);
+        List<@DecimalMin(value="0.0", inclusive = false) BigDecimal> inputData
+    ) {
+        return this.modelService.runInferenceAsync(email, BreathSamples.fromDecimals(inputData));
+    }
+
+    @PostMapping(value = "/{email:.+}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public CompletableFuture<ResponseEntity<byte[]>> queryModelBinary(
+        @PathVariable("email") 
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE) 
+        String email,
+        @RequestBody
+        byte[] inputData
+    ) {
+        return this.modelService.runInferenceAsync(email, BreathSamples.fromFloat32(inputData));
     }
 }
@@ -1,17 +1,24 @@
 package com.th26.usermanagement.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Pattern;
 
 import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
 import com.th26.usermanagement.services.ProfileService;
 
 @RestController
@@ -22,7 +29,32 @@ public class ProfileController {
     private ProfileService profileService;
 
     @GetMapping("/{email:.+}")
-    public ResponseEntity<ProfileResponse> getProfileByEmail(@PathVariable("email") @Email(regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags = Pattern.Flag.CASE_INSENSITIVE) String email) {
-        return ResponseEntity.ok(profileService.getProfileByEmail(email));
+    public ResponseEntity<ProfileResponse> getProfileByEmail(@PathVariable("email") @Email(regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags = Pattern.Flag.CASE_INSENSITIVE) String email, WebRequest request) {
+        // A client revalidating its copy only needs the current version, so
+        // check that first and skip loading and serializing the profile if it matches
+        ProfileVersion current = null;
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            current = profileService.getProfileVersion(email);
+            // Checked without the response, which checkNotModified would otherwise
+            // tag with the probed version even when the profile is then served
+            if (new ServletWebRequest(request.getNativeRequest(HttpServletRequest.class)).checkNotModified(current.etag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(current.etag())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+            }
+        }
+
+        ProfileResponse profile = profileService.getProfileByEmail(email);
+        // The cached copy is not the version just read, e.g. after an update
+        // through another instance, so replace it rather than serve it
+        if (current != null && !current.equals(ProfileVersion.of(profile))) {
+            profile = profileService.reloadProfileByEmail(email);
+        }
+        // Tagged with the version served, which may differ from the probed one
+        return ResponseEntity.ok()
+            .eTag(ProfileVersion.of(profile).etag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .body(profile);
     }
 }
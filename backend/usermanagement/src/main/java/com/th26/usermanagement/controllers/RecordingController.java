@@ -0,0 +1,53 @@
+package com.th26.usermanagement.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
+import com.th26.usermanagement.dtos.responses.RecordingResponse;
+import com.th26.usermanagement.dtos.responses.RecordingSummaryResponse;
+import com.th26.usermanagement.services.RecordingService;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@Validated
+@RequestMapping("/usermanagement/api/recordings")
+public class RecordingController {
+    private final RecordingService recordingService;
+    public RecordingController(RecordingService recordingService) {
+        this.recordingService = recordingService;
+    }
+
+    @GetMapping("/{email:.+}")
+    public ResponseEntity<List<RecordingSummaryResponse>> getRecordings(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email
+    ) {
+        return ResponseEntity.ok(this.recordingService.getRecordingsByEmail(email));
+    }
+
+    @GetMapping("/{email:.+}/{id}")
+    public ResponseEntity<RecordingResponse> getRecording(
+        @PathVariable("email")
+        @Email(regexp="^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags=Pattern.Flag.CASE_INSENSITIVE)
+        String email,
+        @PathVariable("id")
+        UUID id,
+        @RequestParam(name = "max_points", required = false)
+        @Min(2)
+        Integer maxPoints
+    ) {
+        return ResponseEntity.ok(this.recordingService.getRecording(email, id, maxPoints));
+    }
+}
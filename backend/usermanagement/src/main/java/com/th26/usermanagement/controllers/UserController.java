@@ -1,6 +1,7 @@
 package com.th26.usermanagement.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -19,6 +21,7 @@ import com.th26.usermanagement.services.UserManagementService;
 import com.th26.usermanagement.dtos.requests.CreateValidation;
 import com.th26.usermanagement.dtos.requests.UpdateValidation;
 import com.th26.usermanagement.dtos.requests.UserRequest;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
 
 import java.util.UUID;
 
@@ -36,9 +39,12 @@ public class UserController {
     }
 
     @PatchMapping
-    public ResponseEntity<String> updateUser(@Validated(UpdateValidation.class) @RequestBody UserRequest request) {
-        this.userManagementService.updateUser(request);
-        return ResponseEntity.ok("User updated successfully");
+    public ResponseEntity<String> updateUser(
+        @Validated(UpdateValidation.class) @RequestBody UserRequest request,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        ProfileVersion version = this.userManagementService.updateUser(request, ifMatch);
+        return ResponseEntity.ok().eTag(version.etag()).body("User updated successfully");
     }
     
     @DeleteMapping("/{email:.+}")
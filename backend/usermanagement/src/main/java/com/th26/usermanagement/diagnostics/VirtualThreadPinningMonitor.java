@@ -0,0 +1,97 @@
+package com.th26.usermanagement.diagnostics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+
+/**
+ * Reports virtual threads that pin their carrier thread while blocked, using
+ * the JDK's {@code jdk.VirtualThreadPinned} flight recorder event. A pinned
+ * virtual thread holds one of the few carrier threads for as long as it
+ * blocks, so frequent pinning quietly turns virtual threads back into a small
+ * platform pool.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Duration threshold;
+    private final Counter pinnedCounter;
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.diagnostics.pinning-threshold}") Duration threshold
+    ) {
+        this.threshold = threshold;
+        this.pinnedCounter = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier for longer than the threshold")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        this.stream = new RecordingStream();
+        this.stream.enable(PINNED_EVENT).withThreshold(this.threshold).withStackTrace();
+        this.stream.onEvent(PINNED_EVENT, this::report);
+        this.stream.startAsync();
+
+        String parallelism = System.getProperty(
+            "jdk.virtualThreadScheduler.parallelism",
+            Integer.toString(Runtime.getRuntime().availableProcessors())
+        );
+        logger.info("Virtual threads enabled with {} carrier threads; reporting pinning longer than {}",
+            parallelism, this.threshold);
+    }
+
+    private void report(RecordedEvent event) {
+        this.pinnedCounter.increment();
+        logger.atWarn()
+            .addKeyValue("duration_ms", event.getDuration().toMillis())
+            .addKeyValue("reason", event.hasField("pinnedReason") ? event.getString("pinnedReason") : "unknown")
+            .addKeyValue("frame", firstApplicationFrame(event.getStackTrace()))
+            .log("Virtual thread pinned its carrier thread");
+    }
+
+    // The frame closest to the top of the stack that belongs to this service, which
+    // is usually where the lock or native call needs fixing; otherwise the top frame.
+    private static String firstApplicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame chosen = stackTrace.getFrames().getFirst();
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("com.th26.")) {
+                chosen = frame;
+                break;
+            }
+        }
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName()
+            + ":" + chosen.getLineNumber();
+    }
+
+    @Override
+    public void destroy() {
+        if (this.stream != null) {
+            this.stream.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.th26.usermanagement.dtos.requests;
+
+import com.th26.usermanagement.exceptions.InvalidBreathDataException;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+/**
+ * Converts incoming breath recordings into the primitive sample array that is
+ * forwarded to the model service.
+ */
+public final class BreathSamples {
+    private BreathSamples() {}
+
+    /**
+     * Decodes packed little-endian float32 samples, as sent by the spirometer,
+     * and validates them in the same pass.
+     */
+    public static float[] fromFloat32(byte[] body) {
+        if (body.length == 0 || body.length % Float.BYTES != 0) {
+            throw new InvalidBreathDataException("Bad request - breath data must be a non-empty sequence of float32 samples");
+        }
+
+        float[] samples = new float[body.length / Float.BYTES];
+        ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(samples);
+        for (float sample : samples) {
+            // Also rejects NaN, which fails every comparison
+            if (!(sample > 0f) || sample == Float.POSITIVE_INFINITY) {
+                throw new InvalidBreathDataException("Bad request - breath data samples must be finite and positive");
+            }
+        }
+        return samples;
+    }
+
+    public static float[] fromDecimals(List<BigDecimal> values) {
+        float[] samples = new float[values.size()];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = values.get(i).floatValue();
+            // The values are positive, but may be too small or too large for a float
+            if (!(samples[i] > 0f) || samples[i] == Float.POSITIVE_INFINITY) {
+                throw new InvalidBreathDataException("Bad request - breath data samples must be finite and positive");
+            }
+        }
+        return samples;
+    }
+}
@@ -12,7 +12,6 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 @Data
 @Builder
@@ -33,7 +32,9 @@ public class ModelRerouteRequest {
     @JsonProperty("sex")
     private String sex;
 
+    // Kept as primitives so samples are serialized without boxing;
+    // they are validated when the recording is received.
     @NotNull
     @JsonProperty("breath_data")
-    private List<@DecimalMin(value="0.0") BigDecimal> breathData;
+    private float[] breathData;
 }
@@ -0,0 +1,46 @@
+package com.th26.usermanagement.dtos.responses;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobResponse {
+    @NotNull
+    private UUID id;
+
+    @NotNull
+    @Pattern(regexp = "^(queued|running|succeeded|failed)$")
+    private String status;
+
+    @NotNull
+    @Pattern(regexp = "^(interactive|background)$")
+    private String priority;
+
+    @NotNull
+    @JsonProperty("created_at")
+    private Instant createdAt;
+
+    @JsonProperty("finished_at")
+    private Instant finishedAt;
+
+    // Set once the job has succeeded
+    private String diagnosis;
+
+    // Set once the job has failed, or while a failed attempt waits to be retried
+    private String error;
+}
@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import lombok.Data;
@@ -15,6 +16,7 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
 import java.math.BigDecimal;
+import java.util.UUID;
 
 @Data
 @Builder
@@ -50,4 +52,11 @@ public class ProfileResponse {
     @JsonProperty("weight_lbs")
     @DecimalMin(value="0.0", inclusive = false)
     private BigDecimal weight;
+
+    // Sent as the ETag header rather than in the body (see ProfileVersion)
+    @JsonIgnore
+    private UUID id;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,32 @@
+package com.th26.usermanagement.dtos.responses;
+
+import java.util.UUID;
+
+/**
+ * Identifies one revision of a profile. Its ETag includes the profile ID as
+ * well as the version, so a profile that is deleted and created again under
+ * the same email never matches a copy of the old one.
+ */
+public record ProfileVersion(UUID id, Long version) {
+    public static ProfileVersion of(ProfileResponse profile) {
+        return new ProfileVersion(profile.getId(), profile.getVersion());
+    }
+
+    public String etag() {
+        return "\"" + this.id + "-" + this.version + "\"";
+    }
+
+    /**
+     * Whether an If-Match header matches this revision. Uses strong comparison,
+     * so weak tags never match.
+     */
+    public boolean matches(String ifMatch) {
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.strip();
+            if (trimmed.equals("*") || trimmed.equals(this.etag())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
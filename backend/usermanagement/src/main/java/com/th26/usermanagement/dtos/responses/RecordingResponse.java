@@ -0,0 +1,37 @@
+package com.th26.usermanagement.dtos.responses;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingResponse {
+    @NotNull
+    private UUID id;
+
+    @NotNull
+    @JsonProperty("recorded_at")
+    private Instant recordedAt;
+
+    // Number of samples originally recorded; breath_data is shorter when downsampled
+    @NotNull
+    @Min(1)
+    @JsonProperty("sample_count")
+    private Integer sampleCount;
+
+    @NotNull
+    @JsonProperty("breath_data")
+    private float[] breathData;
+}
@@ -0,0 +1,32 @@
+package com.th26.usermanagement.dtos.responses;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordingSummaryResponse {
+    @NotNull
+    private UUID id;
+
+    @NotNull
+    @JsonProperty("recorded_at")
+    private Instant recordedAt;
+
+    @NotNull
+    @Min(1)
+    @JsonProperty("sample_count")
+    private Integer sampleCount;
+}
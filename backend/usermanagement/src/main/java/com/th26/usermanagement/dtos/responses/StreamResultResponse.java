@@ -0,0 +1,36 @@
+package com.th26.usermanagement.dtos.responses;
+
+import jakarta.validation.constraints.Min;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Result of one sliding-window inference, pushed to a streaming client.
+ * Exactly one of {@code diagnosis} and {@code error} is set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StreamResultResponse {
+    // Counts up from 0 for each window inferred in the session
+    @Min(0)
+    private long window;
+
+    // Number of samples received in the session when the window was taken;
+    // the window covers the samples just before this point
+    @Min(1)
+    @JsonProperty("end_sample")
+    private long endSample;
+
+    private String diagnosis;
+
+    private String error;
+}
@@ -0,0 +1,99 @@
+package com.th26.usermanagement.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"user", "samples"})
+@Table(name = "inference_jobs")
+public class InferenceJob {
+    // Stored by ordinal, so new priorities must be added at the end
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.ORDINAL)
+    @NotNull
+    private Priority priority;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @NotNull
+    private Status status;
+
+    @Column(nullable = false)
+    @NotNull
+    @Min(0)
+    private Short attempts;
+
+    @Column(name = "sample_count", nullable = false)
+    @NotNull
+    @Min(1)
+    private Integer sampleCount;
+
+    @Column(nullable = false)
+    @NotNull
+    private Short encoding;
+
+    // Cleared once the job has finished, since only attempts need it
+    private byte[] samples;
+
+    private String diagnosis;
+
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    @NotNull
+    private Instant createdAt;
+
+    // Not claimed before this time; pushed back when a failed attempt is retried
+    @Column(name = "available_at", nullable = false)
+    @NotNull
+    private Instant availableAt;
+
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    public boolean isFinished() {
+        return this.status == Status.SUCCEEDED || this.status == Status.FAILED;
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.OneToOne;
 import jakarta.persistence.MapsId;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -15,6 +16,7 @@ import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Pattern;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -73,4 +75,11 @@ public class Profile {
     @NotNull
     @DecimalMin(value="0.0", inclusive = false)
     private BigDecimal weight;
+
+    // Managed by Hibernate, which increments it whenever the profile changes
+    // and fails an update made against an older version
+    @Version
+    @Column(nullable = false)
+    @Setter(AccessLevel.NONE)
+    private Long version;
 }
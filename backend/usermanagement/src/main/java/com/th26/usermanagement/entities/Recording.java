@@ -0,0 +1,59 @@
+package com.th26.usermanagement.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.Id;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Column;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Min;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString(exclude = {"user", "samples"})
+@Table(name = "recordings")
+public class Recording {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "recorded_at", nullable = false)
+    @NotNull
+    private Instant recordedAt;
+
+    @Column(name = "sample_count", nullable = false)
+    @NotNull
+    @Min(1)
+    private Integer sampleCount;
+
+    @Column(nullable = false)
+    @NotNull
+    private Short encoding;
+
+    @Column(nullable = false)
+    @NotNull
+    private byte[] samples;
+}
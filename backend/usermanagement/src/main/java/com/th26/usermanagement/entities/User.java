@@ -9,6 +9,8 @@ import jakarta.persistence.Column;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Email;
@@ -20,7 +22,9 @@ import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.ToString;
+import lombok.AccessLevel;
 
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
@@ -39,15 +43,31 @@ public class User {
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Profile profile;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     @NotBlank
     @Email(regexp = "^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z]{2,}$", flags = Pattern.Flag.CASE_INSENSITIVE)
     private String email;
 
+    // Emails are compared case-insensitively. Lookups go through this lowercased
+    // copy so they stay a single probe of its unique index.
+    @Column(name = "email_key", nullable = false, unique = true)
+    @Setter(AccessLevel.NONE)
+    private String emailKey;
+
     @Column(name = "password_hash", nullable = false)
     @NotBlank
     private String passwordHash;
 
+    public static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void updateEmailKey() {
+        this.emailKey = emailKey(this.email);
+    }
+
     public void setProfile(Profile profile) {
         this.profile = profile;
         if (profile != null) {
@@ -0,0 +1,11 @@
+package com.th26.usermanagement.exceptions;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.http.HttpStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBreathDataException extends IllegalArgumentException {
+    public InvalidBreathDataException(String message) {
+        super(message);
+    }
+}
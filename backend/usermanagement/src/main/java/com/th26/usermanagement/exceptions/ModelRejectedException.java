@@ -0,0 +1,15 @@
+package com.th26.usermanagement.exceptions;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.http.HttpStatus;
+
+/**
+ * The model service answered with a 4xx: it is up but refused this input, so
+ * sending the same request again would only be refused again.
+ */
+@ResponseStatus(HttpStatus.BAD_GATEWAY)
+public class ModelRejectedException extends GatewayException {
+    public ModelRejectedException(String message) {
+        super(message);
+    }
+}
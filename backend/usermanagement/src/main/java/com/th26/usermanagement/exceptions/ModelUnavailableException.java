@@ -0,0 +1,24 @@
+package com.th26.usermanagement.exceptions;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ModelUnavailableException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ModelUnavailableException(String message) {
+        this(message, null);
+    }
+
+    public ModelUnavailableException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return this.retryAfter;
+    }
+}
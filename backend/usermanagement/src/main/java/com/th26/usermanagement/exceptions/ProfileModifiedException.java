@@ -0,0 +1,11 @@
+package com.th26.usermanagement.exceptions;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.http.HttpStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class ProfileModifiedException extends RuntimeException {
+    public ProfileModifiedException(String message) {
+        super(message);
+    }
+}
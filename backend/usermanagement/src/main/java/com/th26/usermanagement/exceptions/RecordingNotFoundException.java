@@ -0,0 +1,11 @@
+package com.th26.usermanagement.exceptions;
+
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.http.HttpStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RecordingNotFoundException extends RuntimeException {
+    public RecordingNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,12 @@
 package com.th26.usermanagement.handlers;
 
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.ErrorResponse;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.validation.FieldError;
@@ -12,6 +14,12 @@ import org.springframework.validation.FieldError;
 import com.th26.usermanagement.exceptions.UserExistsException;
 import com.th26.usermanagement.exceptions.UserNotFoundException;
 import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.exceptions.InvalidBreathDataException;
+import com.th26.usermanagement.exceptions.ModelUnavailableException;
+import com.th26.usermanagement.exceptions.RecordingNotFoundException;
+import com.th26.usermanagement.exceptions.JobNotFoundException;
+import com.th26.usermanagement.exceptions.RateLimitExceededException;
+import com.th26.usermanagement.exceptions.ProfileModifiedException;
 
 import java.util.Map;
 import java.util.HashMap;
@@ -24,18 +32,70 @@ public class GlobalExceptionHandler {
         return ErrorResponse.create(ex, HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    @ExceptionHandler(RecordingNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleRecordingNotFoundException(RecordingNotFoundException ex) {
+        return ErrorResponse.create(ex, HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
+    @ExceptionHandler(JobNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ErrorResponse handleJobNotFoundException(JobNotFoundException ex) {
+        return ErrorResponse.create(ex, HttpStatus.NOT_FOUND, ex.getMessage());
+    }
+
     @ExceptionHandler(UserExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleUserExistsException(UserExistsException ex) {
         return ErrorResponse.create(ex, HttpStatus.CONFLICT, ex.getMessage());
     }
 
+    @ExceptionHandler(ProfileModifiedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ErrorResponse handleProfileModifiedException(ProfileModifiedException ex) {
+        return ErrorResponse.create(ex, HttpStatus.PRECONDITION_FAILED, ex.getMessage());
+    }
+
+    // Another update committed between this one reading the profile and writing it
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        return ErrorResponse.create(ex, HttpStatus.CONFLICT, "Conflict - profile was modified by another request");
+    }
+
     @ExceptionHandler(GatewayException.class)
     @ResponseStatus(HttpStatus.BAD_GATEWAY)
     public ErrorResponse handleGatewayException(GatewayException ex) {
         return ErrorResponse.create(ex, HttpStatus.BAD_GATEWAY, ex.getMessage());
     }
 
+    @ExceptionHandler(ModelUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleModelUnavailableException(ModelUnavailableException ex) {
+        ErrorResponse.Builder builder = ErrorResponse.builder(ex, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        if (ex.getRetryAfter() != null) {
+            // Retry-After is whole seconds, so round up rather than tell clients to retry immediately
+            long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+            builder.header(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        }
+        return builder.build();
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ErrorResponse handleRateLimitExceededException(RateLimitExceededException ex) {
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ErrorResponse.builder(ex, HttpStatus.TOO_MANY_REQUESTS, ex.getMessage())
+            .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+            .build();
+    }
+
+    @ExceptionHandler(InvalidBreathDataException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleInvalidBreathDataException(InvalidBreathDataException ex) {
+        return ErrorResponse.create(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleValidationException(MethodArgumentNotValidException ex) {
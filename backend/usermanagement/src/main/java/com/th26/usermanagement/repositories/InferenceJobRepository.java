@@ -0,0 +1,144 @@
+package com.th26.usermanagement.repositories;
+
+import com.th26.usermanagement.entities.InferenceJob;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface InferenceJobRepository extends JpaRepository<InferenceJob, UUID> {
+    // What a worker needs to run a claimed job, including the owner's email,
+    // so claiming does not load each job's user separately
+    interface AvailableJob {
+        UUID getId();
+        Short getAttempts();
+        Integer getSampleCount();
+        byte[] getSamples();
+        String getEmail();
+    }
+
+    // Locks up to `limit` of the oldest available jobs of one priority. Rows
+    // already locked by another worker are skipped rather than waited on, so
+    // concurrent workers each get different jobs. Must run in a transaction,
+    // which holds the locks until the claimed jobs are marked RUNNING. The
+    // email is read by a subquery so that only the job rows are locked.
+    @Query(value = """
+        select j.id as "id", j.attempts as "attempts", j.sample_count as "sampleCount", j.samples as "samples",
+            (select u.email from users u where u.id = j.user_id) as "email"
+        from inference_jobs j
+        where j.status = 'QUEUED' and j.priority = :priority and j.available_at <= :now
+        order by j.available_at
+        limit :limit
+        for update skip locked
+        """, nativeQuery = true)
+    List<AvailableJob> lockAvailable(@Param("priority") int priority, @Param("now") Instant now, @Param("limit") int limit);
+
+    // Claims jobs locked by lockAvailable for a new attempt
+    @Transactional
+    @Modifying
+    @Query(value = """
+        update inference_jobs
+        set status = 'RUNNING', attempts = attempts + 1, locked_until = :lockedUntil
+        where id in (:ids)
+        """, nativeQuery = true)
+    int markRunning(@Param("ids") Collection<UUID> ids, @Param("lockedUntil") Instant lockedUntil);
+
+    // For a job locked by lockAvailable that has used up its attempts
+    @Transactional
+    @Modifying
+    @Query("""
+        update InferenceJob j
+        set j.status = com.th26.usermanagement.entities.InferenceJob.Status.FAILED,
+            j.error = :error, j.finishedAt = :now, j.lockedUntil = null, j.samples = null
+        where j.id = :id and j.status = com.th26.usermanagement.entities.InferenceJob.Status.QUEUED
+        """)
+    int markAbandoned(@Param("id") UUID id, @Param("error") String error, @Param("now") Instant now);
+
+    @Query("""
+        select j
+        from InferenceJob j join j.user u
+        where j.id = :id and u.emailKey = :emailKey
+        """)
+    Optional<InferenceJob> findByIdAndEmailKey(@Param("id") UUID id, @Param("emailKey") String emailKey);
+
+    // Jobs that are neither finished nor deleted
+    @Query("""
+        select j.id
+        from InferenceJob j
+        where j.id in :ids and j.status in (
+            com.th26.usermanagement.entities.InferenceJob.Status.QUEUED,
+            com.th26.usermanagement.entities.InferenceJob.Status.RUNNING
+        )
+        """)
+    List<UUID> findPendingIds(@Param("ids") Collection<UUID> ids);
+
+    // Each of these only applies while the job is still RUNNING as the attempt
+    // that claimed it, so a worker whose lock expired (and whose job was
+    // requeued and claimed again) cannot overwrite the newer attempt.
+    @Transactional
+    @Modifying
+    @Query("""
+        update InferenceJob j
+        set j.status = com.th26.usermanagement.entities.InferenceJob.Status.SUCCEEDED,
+            j.diagnosis = :diagnosis, j.finishedAt = :now, j.lockedUntil = null, j.samples = null
+        where j.id = :id and j.status = com.th26.usermanagement.entities.InferenceJob.Status.RUNNING
+            and j.attempts = :attempt
+        """)
+    int markSucceeded(@Param("id") UUID id, @Param("attempt") short attempt, @Param("diagnosis") String diagnosis, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update InferenceJob j
+        set j.status = com.th26.usermanagement.entities.InferenceJob.Status.FAILED,
+            j.error = :error, j.finishedAt = :now, j.lockedUntil = null, j.samples = null
+        where j.id = :id and j.status = com.th26.usermanagement.entities.InferenceJob.Status.RUNNING
+            and j.attempts = :attempt
+        """)
+    int markFailed(@Param("id") UUID id, @Param("attempt") short attempt, @Param("error") String error, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("""
+        update InferenceJob j
+        set j.status = com.th26.usermanagement.entities.InferenceJob.Status.QUEUED,
+            j.error = :error, j.availableAt = :availableAt, j.lockedUntil = null
+        where j.id = :id and j.status = com.th26.usermanagement.entities.InferenceJob.Status.RUNNING
+            and j.attempts = :attempt
+        """)
+    int requeue(@Param("id") UUID id, @Param("attempt") short attempt, @Param("error") String error, @Param("availableAt") Instant availableAt);
+
+    // Jobs whose worker died or lost its connection mid-run
+    @Transactional
+    @Modifying
+    @Query("""
+        update InferenceJob j
+        set j.status = com.th26.usermanagement.entities.InferenceJob.Status.QUEUED,
+            j.availableAt = :now, j.lockedUntil = null
+        where j.status = com.th26.usermanagement.entities.InferenceJob.Status.RUNNING
+            and j.lockedUntil < :now
+        """)
+    int requeueExpired(@Param("now") Instant now);
+
+    // Finished jobs past their retention, a batch at a time so that no single
+    // statement holds locks on a large part of the table
+    @Transactional
+    @Modifying
+    @Query(value = """
+        delete from inference_jobs
+        where id in (
+            select id from inference_jobs
+            where finished_at < :cutoff
+            limit :limit
+        )
+        """, nativeQuery = true)
+    int deleteFinishedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+}
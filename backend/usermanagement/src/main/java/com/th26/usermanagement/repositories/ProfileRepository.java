@@ -1,9 +1,36 @@
 package com.th26.usermanagement.repositories;
 
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
 import com.th26.usermanagement.entities.Profile;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Optional;
 import java.util.UUID;
 
-public interface ProfileRepository extends JpaRepository<Profile, UUID> {}
+public interface ProfileRepository extends JpaRepository<Profile, UUID> {
+    // Joins users and profiles in one statement and projects straight into the
+    // response, so neither entity (nor the password hash) is loaded.
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.th26.usermanagement.dtos.responses.ProfileResponse(
+            p.firstName, p.lastName, p.age, p.sex, p.genderIdentity, p.height, p.weight, p.id, p.version
+        )
+        from Profile p join p.user u
+        where u.emailKey = :emailKey
+        """)
+    Optional<ProfileResponse> findProfileResponseByEmailKey(@Param("emailKey") String emailKey);
+
+    // Just enough to tell whether a client's copy of the profile is current
+    @Transactional(readOnly = true)
+    @Query("""
+        select new com.th26.usermanagement.dtos.responses.ProfileVersion(p.id, p.version)
+        from Profile p join p.user u
+        where u.emailKey = :emailKey
+        """)
+    Optional<ProfileVersion> findProfileVersionByEmailKey(@Param("emailKey") String emailKey);
+}
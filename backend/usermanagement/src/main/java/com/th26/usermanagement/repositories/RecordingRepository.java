@@ -0,0 +1,33 @@
+package com.th26.usermanagement.repositories;
+
+import com.th26.usermanagement.dtos.responses.RecordingSummaryResponse;
+import com.th26.usermanagement.entities.Recording;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RecordingRepository extends JpaRepository<Recording, UUID> {
+    // Lists recordings without selecting the sample blocks, which are only
+    // read (and decoded) when a single recording is requested.
+    @Query("""
+        select new com.th26.usermanagement.dtos.responses.RecordingSummaryResponse(
+            r.id, r.recordedAt, r.sampleCount
+        )
+        from Recording r join r.user u
+        where u.emailKey = :emailKey
+        order by r.recordedAt desc
+        """)
+    List<RecordingSummaryResponse> findSummariesByEmailKey(@Param("emailKey") String emailKey);
+
+    @Query("""
+        select r
+        from Recording r join r.user u
+        where r.id = :id and u.emailKey = :emailKey
+        """)
+    Optional<Recording> findByIdAndEmailKey(@Param("id") UUID id, @Param("emailKey") String emailKey);
+}
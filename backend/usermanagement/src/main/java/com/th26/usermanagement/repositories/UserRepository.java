@@ -4,9 +4,15 @@ import com.th26.usermanagement.entities.User;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
-    Optional<User> findByEmail(String email);
+    Optional<User> findByEmailKey(String emailKey);
+
+    boolean existsByEmailKey(String emailKey);
+
+    List<User> findByEmailKeyIn(Collection<String> emailKeys);
 }
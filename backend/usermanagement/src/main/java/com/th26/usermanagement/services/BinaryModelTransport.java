@@ -0,0 +1,109 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Sends predictions to {@code /predict/binary} as a single length-prefixed
+ * frame of float32 values instead of JSON, avoiding text encoding of the
+ * samples on both sides.
+ *
+ * <p>Frame layout, all little-endian: version (u8), sex (u8, 0 = female,
+ * 1 = male), height in inches (f32), weight in pounds (f32), sample count
+ * (u32), then that many samples (f32).
+ *
+ * <p>Uses the JDK client with HTTP/2, which multiplexes concurrent predictions
+ * over one connection when the model service speaks h2c. Otherwise the client
+ * falls back to pooled, persistent HTTP/1.1 connections.
+ */
+@Component
+@ConditionalOnProperty(name = "com.th26.model.transport", havingValue = "binary")
+public class BinaryModelTransport implements ModelTransport {
+    public static final byte FRAME_VERSION = 1;
+    public static final int FRAME_HEADER_BYTES = 2 * Byte.BYTES + 2 * Float.BYTES + Integer.BYTES;
+
+    private final HttpClient httpClient;
+    private final URI predictUri;
+    private final Duration deadline;
+
+    public BinaryModelTransport(
+        @Value("${com.th26.model.endpoint}") String modelEndpoint,
+        @Value("${com.th26.model.client.connect-timeout}") Duration connectTimeout,
+        @Value("${com.th26.model.client.deadline}") Duration deadline
+    ) {
+        this.predictUri = URI.create(modelEndpoint + "/predict/binary");
+        this.deadline = deadline;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(connectTimeout)
+            .build();
+    }
+
+    public static byte[] encodeFrame(ModelRerouteRequest request) {
+        float[] samples = request.getBreathData();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_BYTES + samples.length * Float.BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .put(FRAME_VERSION)
+            .put((byte) (request.getSex().equals("male") ? 1 : 0))
+            .putFloat(request.getHeight().floatValue())
+            .putFloat(request.getWeight().floatValue())
+            .putInt(samples.length);
+        frame.asFloatBuffer().put(samples);
+        return frame.array();
+    }
+
+    @Override
+    public ResponseEntity<byte[]> predict(ModelRerouteRequest request) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(this.predictUri)
+            .timeout(this.deadline)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(encodeFrame(request)))
+            .build();
+
+        HttpResponse<byte[]> response;
+        try {
+            response = this.httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on POST request for \"" + this.predictUri + "\": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted during POST request for \"" + this.predictUri + "\"");
+        }
+
+        HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+        MediaType contentType = response.headers().firstValue(HttpHeaders.CONTENT_TYPE)
+            .map(MediaType::parseMediaType)
+            .orElse(null);
+        if (status.isError()) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(contentType);
+            throw new RestClientResponseException(
+                status.value() + " on POST request for \"" + this.predictUri + "\"",
+                status, "", headers, response.body(), StandardCharsets.UTF_8
+            );
+        }
+
+        return ResponseEntity.status(status)
+            .contentType(contentType)
+            .body(response.body());
+    }
+}
@@ -0,0 +1,191 @@
+package com.th26.usermanagement.services;
+
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding for stored breath recordings.
+ *
+ * <p>Samples are float32 values XOR-encoded against their predecessor, in the
+ * style of Facebook's Gorilla time-series format: an unchanged sample costs one
+ * bit, and a changed one stores only the bits that differ. Spirometer readings
+ * come from a 10-bit ADC and change slowly, so most XORs share their leading
+ * and trailing zero runs and a recording shrinks to a fraction of its raw size.
+ *
+ * <p>Layout: the first sample as 32 raw bits, then per sample either
+ * {@code 0} (same as previous), {@code 10 + bits} (reuse the previous
+ * leading/trailing window), or {@code 11 + 5-bit leading + 5-bit length-1 + bits}.
+ */
+public final class BreathCodec {
+    public static final short XOR_FLOAT32 = 1;
+
+    private BreathCodec() {}
+
+    public static byte[] encode(float[] samples) {
+        if (samples.length == 0) {
+            return new byte[0];
+        }
+        BitWriter out = new BitWriter(samples.length + Integer.BYTES);
+        int previous = Float.floatToRawIntBits(samples[0]);
+        out.write(previous, 32);
+
+        // -1 until the first window has been written
+        int previousLeading = -1;
+        int previousTrailing = 0;
+        for (int i = 1; i < samples.length; i++) {
+            int bits = Float.floatToRawIntBits(samples[i]);
+            int xor = bits ^ previous;
+            previous = bits;
+
+            if (xor == 0) {
+                out.write(0, 1);
+                continue;
+            }
+
+            int leading = Integer.numberOfLeadingZeros(xor);
+            int trailing = Integer.numberOfTrailingZeros(xor);
+            if (previousLeading >= 0 && leading >= previousLeading && trailing >= previousTrailing) {
+                out.write(0b10, 2);
+                out.write(xor >>> previousTrailing, 32 - previousLeading - previousTrailing);
+            } else {
+                int significant = 32 - leading - trailing;
+                out.write(0b11, 2);
+                out.write(leading, 5);
+                out.write(significant - 1, 5);
+                out.write(xor >>> trailing, significant);
+                previousLeading = leading;
+                previousTrailing = trailing;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static float[] decode(byte[] block, int count) {
+        Reader reader = new Reader(block);
+        float[] samples = new float[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = reader.next();
+        }
+        return samples;
+    }
+
+    /**
+     * Decodes a recording down to at most {@code maxPoints} values for charting,
+     * keeping the minimum and maximum of each bucket in their original order so
+     * peaks survive. Samples are reduced as they are decoded, so the full
+     * recording is never materialized.
+     */
+    public static float[] decodeDownsampled(byte[] block, int count, int maxPoints) {
+        if (maxPoints >= count) {
+            return decode(block, count);
+        }
+
+        Reader reader = new Reader(block);
+        int buckets = Math.max(1, maxPoints / 2);
+        float[] points = new float[buckets * 2];
+        int index = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int end = (int) ((long) (bucket + 1) * count / buckets);
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            int minAt = 0;
+            int maxAt = 0;
+            for (; index < end; index++) {
+                float sample = reader.next();
+                if (sample < min) {
+                    min = sample;
+                    minAt = index;
+                }
+                if (sample > max) {
+                    max = sample;
+                    maxAt = index;
+                }
+            }
+            points[bucket * 2] = minAt <= maxAt ? min : max;
+            points[bucket * 2 + 1] = minAt <= maxAt ? max : min;
+        }
+        return points;
+    }
+
+    private static final class Reader {
+        private final BitReader in;
+        private int previous;
+        private int leading;
+        private int trailing;
+        private boolean started;
+
+        Reader(byte[] block) {
+            this.in = new BitReader(block);
+        }
+
+        float next() {
+            if (!this.started) {
+                this.previous = (int) this.in.read(32);
+                this.started = true;
+            } else if (this.in.read(1) == 1) {
+                if (this.in.read(1) == 1) {
+                    this.leading = (int) this.in.read(5);
+                    this.trailing = 32 - this.leading - ((int) this.in.read(5) + 1);
+                }
+                int xor = (int) (this.in.read(32 - this.leading - this.trailing) << this.trailing);
+                this.previous ^= xor;
+            }
+            return Float.intBitsToFloat(this.previous);
+        }
+    }
+
+    private static final class BitWriter {
+        private byte[] buffer;
+        private int length;
+        private long pending;
+        private int pendingBits;
+
+        BitWriter(int initialCapacity) {
+            this.buffer = new byte[Math.max(initialCapacity, 16)];
+        }
+
+        // At most 32 bits are written at once and fewer than 8 are ever pending,
+        // so the accumulator never overflows.
+        void write(long value, int bits) {
+            this.pending = (this.pending << bits) | (value & ((1L << bits) - 1));
+            this.pendingBits += bits;
+            while (this.pendingBits >= 8) {
+                this.pendingBits -= 8;
+                if (this.length == this.buffer.length) {
+                    this.buffer = Arrays.copyOf(this.buffer, this.buffer.length * 2);
+                }
+                this.buffer[this.length++] = (byte) (this.pending >>> this.pendingBits);
+            }
+            this.pending &= (1L << this.pendingBits) - 1;
+        }
+
+        byte[] toByteArray() {
+            if (this.pendingBits > 0) {
+                this.write(0, 8 - this.pendingBits);
+            }
+            return Arrays.copyOf(this.buffer, this.length);
+        }
+    }
+
+    private static final class BitReader {
+        private final byte[] buffer;
+        private int position;
+        private long pending;
+        private int pendingBits;
+
+        BitReader(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        long read(int bits) {
+            while (this.pendingBits < bits) {
+                int next = this.position < this.buffer.length ? this.buffer[this.position++] & 0xFF : 0;
+                this.pending = (this.pending << 8) | next;
+                this.pendingBits += 8;
+            }
+            this.pendingBits -= bits;
+            long value = (this.pending >>> this.pendingBits) & ((1L << bits) - 1);
+            this.pending &= (1L << this.pendingBits) - 1;
+            return value;
+        }
+    }
+}
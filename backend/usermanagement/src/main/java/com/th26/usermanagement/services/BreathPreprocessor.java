@@ -0,0 +1,98 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.th26.usermanagement.exceptions.InvalidBreathDataException;
+
+/**
+ * Cleans up breath samples before they are sent to the model service.
+ *
+ * <p>Stages, each configurable: flat runs at either end, where the sensor
+ * idles within {@code trim-tolerance} of its first or last reading, are cut
+ * down to the one sample next to the breath; samples are clipped to
+ * {@code clip-max}; every {@code downsample-factor} consecutive samples are
+ * averaged into one; and the result is optionally scaled so its peak is 1.
+ * Trimming only scans the ends, clipping and downsampling share one pass over
+ * the rest, and normalizing takes a second pass over the smaller output. The
+ * caller's array is never modified, since the raw samples are also stored as
+ * the recording.
+ */
+@Component
+public class BreathPreprocessor {
+    private final boolean enabled;
+    private final float trimTolerance;
+    private final float clipMax;
+    private final int downsampleFactor;
+    private final boolean normalize;
+
+    private final DistributionSummary compressionRatio;
+
+    public BreathPreprocessor(
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.model.preprocessing.enabled}") boolean enabled,
+        @Value("${com.th26.model.preprocessing.trim-tolerance}") float trimTolerance,
+        @Value("${com.th26.model.preprocessing.clip-max}") float clipMax,
+        @Value("${com.th26.model.preprocessing.downsample-factor}") int downsampleFactor,
+        @Value("${com.th26.model.preprocessing.normalize}") boolean normalize
+    ) {
+        this.enabled = enabled;
+        this.trimTolerance = trimTolerance;
+        this.clipMax = clipMax;
+        this.downsampleFactor = Math.max(1, downsampleFactor);
+        this.normalize = normalize;
+        this.compressionRatio = DistributionSummary.builder("model.preprocessing.compression.ratio")
+            .description("Number of samples received divided by the number sent to the model")
+            .register(meterRegistry);
+    }
+
+    public float[] process(float[] samples) {
+        if (!this.enabled) {
+            return samples;
+        }
+
+        // Samples are always positive, so an idle sensor shows up as a flat
+        // line at its resting level rather than as zeros
+        int start = 0;
+        int end = samples.length;
+        float first = samples[0];
+        while (start + 1 < end && Math.abs(samples[start + 1] - first) <= this.trimTolerance) {
+            start++;
+        }
+        if (samples.length > 1 && start == samples.length - 1) {
+            throw new InvalidBreathDataException("Bad request - breath data contains no signal");
+        }
+        float last = samples[samples.length - 1];
+        while (end - 1 > start + 1 && Math.abs(samples[end - 2] - last) <= this.trimTolerance) {
+            end--;
+        }
+
+        int length = end - start;
+        float[] processed = new float[(length + this.downsampleFactor - 1) / this.downsampleFactor];
+        float peak = 0f;
+        for (int out = 0, in = start; out < processed.length; out++) {
+            int windowEnd = Math.min(in + this.downsampleFactor, end);
+            int windowSize = windowEnd - in;
+            float sum = 0f;
+            for (; in < windowEnd; in++) {
+                sum += Math.min(samples[in], this.clipMax);
+            }
+            float value = sum / windowSize;
+            processed[out] = value;
+            peak = Math.max(peak, value);
+        }
+
+        if (this.normalize && peak > 0f) {
+            float scale = 1f / peak;
+            for (int i = 0; i < processed.length; i++) {
+                processed[i] *= scale;
+            }
+        }
+
+        this.compressionRatio.record((double) samples.length / processed.length);
+        return processed;
+    }
+}
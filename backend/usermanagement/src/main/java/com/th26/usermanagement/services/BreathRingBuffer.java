@@ -0,0 +1,62 @@
+package com.th26.usermanagement.services;
+
+/**
+ * Fixed-capacity buffer of the most recent breath samples in a stream. Once
+ * full, each new sample overwrites the oldest. Not thread-safe.
+ */
+public class BreathRingBuffer {
+    private final float[] samples;
+    private int next;
+    private int size;
+    private long total;
+
+    public BreathRingBuffer(int capacity) {
+        this.samples = new float[capacity];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Number of samples added over the buffer's lifetime, including those
+     * since overwritten.
+     */
+    public long total() {
+        return this.total;
+    }
+
+    public void add(float[] values) {
+        int capacity = this.samples.length;
+        this.total += values.length;
+        if (values.length >= capacity) {
+            System.arraycopy(values, values.length - capacity, this.samples, 0, capacity);
+            this.next = 0;
+            this.size = capacity;
+            return;
+        }
+
+        int first = Math.min(values.length, capacity - this.next);
+        System.arraycopy(values, 0, this.samples, this.next, first);
+        System.arraycopy(values, first, this.samples, 0, values.length - first);
+        this.next = (this.next + values.length) % capacity;
+        this.size = Math.min(this.size + values.length, capacity);
+    }
+
+    /**
+     * Copies the {@code count} most recent samples, oldest first.
+     */
+    public float[] latest(int count) {
+        if (count > this.size) {
+            throw new IllegalArgumentException("Only " + this.size + " samples are buffered");
+        }
+
+        int capacity = this.samples.length;
+        int start = Math.floorMod(this.next - count, capacity);
+        float[] window = new float[count];
+        int first = Math.min(count, capacity - start);
+        System.arraycopy(this.samples, start, window, 0, first);
+        System.arraycopy(this.samples, 0, window, first, count - first);
+        return window;
+    }
+}
@@ -0,0 +1,73 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.th26.usermanagement.config.CacheConfiguration;
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Caches successful model results so that a retried upload of the same
+ * recording does not cost another inference.
+ *
+ * <p>The key combines the profile fields the model reads with a SHA-256 digest
+ * of the samples. Any profile change therefore produces a different key, and
+ * results computed for the old profile are never served again; they simply
+ * age out of the cache.
+ */
+@Component
+public class InferenceCache {
+    private static final int DIGEST_CHUNK_SAMPLES = 2048;
+
+    private final Cache cache;
+
+    public InferenceCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CacheConfiguration.INFERENCES);
+    }
+
+    public String keyFor(ModelRerouteRequest request) {
+        return request.getSex()
+            + ':' + request.getHeight().stripTrailingZeros().toPlainString()
+            + ':' + request.getWeight().stripTrailingZeros().toPlainString()
+            + ':' + digest(request.getBreathData());
+    }
+
+    @SuppressWarnings("unchecked")
+    public ResponseEntity<byte[]> get(String key) {
+        return this.cache.get(key, ResponseEntity.class);
+    }
+
+    public void put(String key, ResponseEntity<byte[]> response) {
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            this.cache.put(key, response);
+        }
+    }
+
+    // Hashes the raw float bits through a small reusable buffer rather than
+    // copying the whole recording into a byte array first.
+    private static String digest(float[] samples) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(DIGEST_CHUNK_SAMPLES * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int offset = 0; offset < samples.length; offset += DIGEST_CHUNK_SAMPLES) {
+            int length = Math.min(DIGEST_CHUNK_SAMPLES, samples.length - offset);
+            buffer.clear();
+            buffer.asFloatBuffer().put(samples, offset, length);
+            digest.update(buffer.array(), 0, length * Float.BYTES);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
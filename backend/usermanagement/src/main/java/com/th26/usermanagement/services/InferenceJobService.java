@@ -0,0 +1,15 @@
+package com.th26.usermanagement.services;
+
+import com.th26.usermanagement.dtos.responses.JobResponse;
+import com.th26.usermanagement.entities.InferenceJob;
+import com.th26.usermanagement.exceptions.JobNotFoundException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+public interface InferenceJobService {
+    JobResponse submit(String email, float[] breathData, InferenceJob.Priority priority) throws UserNotFoundException;
+    JobResponse getJob(String email, UUID id) throws JobNotFoundException;
+    CompletableFuture<JobResponse> awaitJob(String email, UUID id) throws JobNotFoundException;
+}
@@ -0,0 +1,126 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.th26.usermanagement.dtos.responses.JobResponse;
+import com.th26.usermanagement.entities.InferenceJob;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.exceptions.JobNotFoundException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+import com.th26.usermanagement.repositories.InferenceJobRepository;
+import com.th26.usermanagement.repositories.UserRepository;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+public class InferenceJobServiceImpl implements InferenceJobService {
+    private final InferenceJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final InferenceJobWorker worker;
+    private final InferenceJobWatchers watchers;
+    private final RecordingWriter recordingWriter;
+    private final ReadYourWrites readYourWrites;
+    private final AsyncTaskExecutor eventExecutor;
+
+    public InferenceJobServiceImpl(
+        InferenceJobRepository jobRepository,
+        UserRepository userRepository,
+        InferenceJobWorker worker,
+        InferenceJobWatchers watchers,
+        RecordingWriter recordingWriter,
+        ReadYourWrites readYourWrites,
+        @Qualifier("jobEventExecutor") AsyncTaskExecutor eventExecutor
+    ) {
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.worker = worker;
+        this.watchers = watchers;
+        this.recordingWriter = recordingWriter;
+        this.readYourWrites = readYourWrites;
+        this.eventExecutor = eventExecutor;
+    }
+
+    @Override
+    @Transactional
+    public JobResponse submit(String email, float[] breathData, InferenceJob.Priority priority) throws UserNotFoundException {
+        User user = this.userRepository.findByEmailKey(User.emailKey(email)).orElseThrow(() ->
+            new UserNotFoundException("Not found - user does not exist")
+        );
+
+        Instant now = Instant.now();
+        InferenceJob job = this.jobRepository.save(InferenceJob.builder()
+            .user(user)
+            .priority(priority)
+            .status(InferenceJob.Status.QUEUED)
+            .attempts((short) 0)
+            .sampleCount(breathData.length)
+            .encoding(BreathCodec.XOR_FLOAT32)
+            .samples(BreathCodec.encode(breathData))
+            .createdAt(now)
+            .availableAt(now)
+            .build());
+
+        // Stored as a recording once, here, rather than on every attempt
+        this.recordingWriter.submit(email, breathData);
+        // So that polling straight after submitting finds the job
+        this.readYourWrites.recordWrite(email);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                InferenceJobServiceImpl.this.worker.wakeUp();
+            }
+        });
+        return toResponse(job);
+    }
+
+    @Override
+    public JobResponse getJob(String email, UUID id) throws JobNotFoundException {
+        return this.readYourWrites.read(email, () -> this.findJob(email, id));
+    }
+
+    @Override
+    public CompletableFuture<JobResponse> awaitJob(String email, UUID id) throws JobNotFoundException {
+        JobResponse job = this.getJob(email, id);
+        if (job.getFinishedAt() != null) {
+            return CompletableFuture.completedFuture(job);
+        }
+        // Read from the primary once notified, since a replica may not have the outcome yet
+        CompletableFuture<Void> finished = this.watchers.watch(id);
+        CompletableFuture<JobResponse> result = finished.thenApplyAsync(
+            ignored -> this.readYourWrites.readFromPrimary(() -> this.findJob(email, id)), this.eventExecutor
+        );
+        // Cancelling the result, once the subscriber has gone, stops watching the job
+        result.whenComplete((job, ex) -> {
+            if (result.isCancelled()) {
+                finished.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    private JobResponse findJob(String email, UUID id) {
+        return this.jobRepository.findByIdAndEmailKey(id, User.emailKey(email))
+            .map(InferenceJobServiceImpl::toResponse)
+            .orElseThrow(() -> new JobNotFoundException("Not found - job does not exist"));
+    }
+
+    private static JobResponse toResponse(InferenceJob job) {
+        return JobResponse.builder()
+            .id(job.getId())
+            .status(job.getStatus().name().toLowerCase(Locale.ROOT))
+            .priority(job.getPriority().name().toLowerCase(Locale.ROOT))
+            .createdAt(job.getCreatedAt())
+            .finishedAt(job.getFinishedAt())
+            .diagnosis(job.getDiagnosis())
+            .error(job.getError())
+            .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.th26.usermanagement.repositories.InferenceJobRepository;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lets subscribers wait for inference jobs to finish. Jobs run by this
+ * instance's worker are reported as soon as they finish; jobs run elsewhere
+ * are picked up by checking the watched jobs against the database every
+ * {@code poll-interval}.
+ */
+@Component
+public class InferenceJobWatchers implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(InferenceJobWatchers.class);
+
+    private final InferenceJobRepository jobRepository;
+    private final ReadYourWrites readYourWrites;
+    private final ConcurrentMap<UUID, Set<CompletableFuture<Void>>> watched = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("inference-job-watchers").daemon().factory()
+    );
+
+    public InferenceJobWatchers(
+        InferenceJobRepository jobRepository,
+        ReadYourWrites readYourWrites,
+        @Value("${com.th26.jobs.poll-interval}") Duration pollInterval
+    ) {
+        this.jobRepository = jobRepository;
+        this.readYourWrites = readYourWrites;
+        this.sweeper.scheduleWithFixedDelay(
+            this::sweep, pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS
+        );
+    }
+
+    /**
+     * Completes once the job has finished or been deleted. Each subscriber gets
+     * its own future; cancelling it stops watching, so a subscriber that goes
+     * away leaves nothing behind to be run when the job finishes.
+     */
+    public CompletableFuture<Void> watch(UUID id) {
+        CompletableFuture<Void> watcher = new CompletableFuture<>();
+        this.watched.compute(id, (key, watchers) -> {
+            Set<CompletableFuture<Void>> updated = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+            updated.add(watcher);
+            return updated;
+        });
+        watcher.whenComplete((ignored, ex) -> {
+            if (watcher.isCancelled()) {
+                this.unwatch(id, watcher);
+            }
+        });
+        return watcher;
+    }
+
+    private void unwatch(UUID id, CompletableFuture<Void> watcher) {
+        this.watched.computeIfPresent(id, (key, watchers) -> {
+            watchers.remove(watcher);
+            return watchers.isEmpty() ? null : watchers;
+        });
+    }
+
+    public void finished(UUID id) {
+        Set<CompletableFuture<Void>> watchers = this.watched.remove(id);
+        if (watchers != null) {
+            watchers.forEach(watcher -> watcher.complete(null));
+        }
+    }
+
+    // Read from the primary, so a lagging replica neither delays nor
+    // contradicts what the worker that finished the job already wrote
+    private void sweep() {
+        if (this.watched.isEmpty()) {
+            return;
+        }
+        try {
+            Set<UUID> ids = new HashSet<>(this.watched.keySet());
+            List<UUID> pending = this.readYourWrites.readFromPrimary(() -> this.jobRepository.findPendingIds(ids));
+            pending.forEach(ids::remove);
+            ids.forEach(this::finished);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to check watched inference jobs: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.sweeper.shutdownNow();
+    }
+}
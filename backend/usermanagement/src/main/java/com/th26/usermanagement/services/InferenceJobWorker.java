@@ -0,0 +1,336 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.entities.InferenceJob;
+import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.exceptions.ModelRejectedException;
+import com.th26.usermanagement.exceptions.ModelUnavailableException;
+import com.th26.usermanagement.repositories.InferenceJobRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs queued inference jobs, at most {@code concurrency} at a time per
+ * instance.
+ *
+ * <p>Whenever slots are free the worker claims jobs from the database, so any
+ * number of instances can share one queue. Free slots are divided between the
+ * priorities by smooth weighted round-robin, so background jobs keep getting
+ * their share while interactive jobs keep arriving; a share a priority cannot
+ * use goes to the others. A claimed job is held for {@code lease}; if its
+ * worker dies before finishing it, the job is queued again once the lease
+ * runs out. Failures that may be temporary (the model being down or
+ * overloaded) are retried with increasing backoff up to {@code max-attempts};
+ * a job whose input the model rejects fails straight away.
+ */
+@Component
+public class InferenceJobWorker implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(InferenceJobWorker.class);
+    private static final InferenceJob.Priority[] PRIORITIES = InferenceJob.Priority.values();
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    private final InferenceJobRepository jobRepository;
+    private final ProfileService profileService;
+    private final ModelService modelService;
+    private final InferenceJobWatchers watchers;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration retention;
+
+    private final Semaphore slots;
+    private final AtomicBoolean pollPending = new AtomicBoolean();
+    private final int[] weights;
+    private final int totalWeight;
+    // Smooth weighted round-robin state, only touched by the scheduler thread
+    private final int[] credits;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("inference-jobs").daemon().factory()
+    );
+
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter retried;
+
+    private record ClaimedJob(UUID id, short attempt, String email, float[] samples) {}
+
+    public InferenceJobWorker(
+        InferenceJobRepository jobRepository,
+        ProfileService profileService,
+        ModelService modelService,
+        InferenceJobWatchers watchers,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.jobs.enabled}") boolean enabled,
+        @Value("${com.th26.jobs.concurrency}") int concurrency,
+        @Value("${com.th26.jobs.interactive-weight}") int interactiveWeight,
+        @Value("${com.th26.jobs.background-weight}") int backgroundWeight,
+        @Value("${com.th26.jobs.poll-interval}") Duration pollInterval,
+        @Value("${com.th26.jobs.lease}") Duration lease,
+        @Value("${com.th26.jobs.max-attempts}") int maxAttempts,
+        @Value("${com.th26.jobs.retry-backoff}") Duration retryBackoff,
+        @Value("${com.th26.jobs.retention}") Duration retention,
+        @Value("${com.th26.jobs.purge-interval}") Duration purgeInterval
+    ) {
+        this.jobRepository = jobRepository;
+        this.profileService = profileService;
+        this.modelService = modelService;
+        this.watchers = watchers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.retention = retention;
+        this.slots = new Semaphore(concurrency);
+        this.weights = new int[PRIORITIES.length];
+        this.weights[InferenceJob.Priority.INTERACTIVE.ordinal()] = interactiveWeight;
+        this.weights[InferenceJob.Priority.BACKGROUND.ordinal()] = backgroundWeight;
+        this.totalWeight = interactiveWeight + backgroundWeight;
+        this.credits = new int[PRIORITIES.length];
+
+        this.succeeded = Counter.builder("inference.jobs.finished")
+            .description("Inference jobs finished, by outcome")
+            .tag("outcome", "succeeded")
+            .register(meterRegistry);
+        this.failed = Counter.builder("inference.jobs.finished")
+            .description("Inference jobs finished, by outcome")
+            .tag("outcome", "failed")
+            .register(meterRegistry);
+        this.retried = Counter.builder("inference.jobs.retried")
+            .description("Failed job attempts put back on the queue")
+            .register(meterRegistry);
+        Gauge.builder("inference.jobs.running", this.slots, slots -> concurrency - slots.availablePermits())
+            .description("Inference jobs this instance is running")
+            .register(meterRegistry);
+
+        if (enabled) {
+            this.scheduler.scheduleWithFixedDelay(
+                this::poll, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS
+            );
+            this.scheduler.scheduleWithFixedDelay(
+                this::requeueExpired, lease.toMillis(), lease.toMillis(), TimeUnit.MILLISECONDS
+            );
+            this.scheduler.scheduleWithFixedDelay(
+                this::purgeFinished, purgeInterval.toMillis(), purgeInterval.toMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    /**
+     * Checks the queue now rather than at the next poll, e.g. after a job was
+     * submitted or a slot freed up. Calls made while a check is pending are
+     * folded into it.
+     */
+    public void wakeUp() {
+        if (this.enabled && this.pollPending.compareAndSet(false, true)) {
+            try {
+                this.scheduler.execute(this::poll);
+            } catch (RuntimeException e) {
+                // Shutting down
+                this.pollPending.set(false);
+            }
+        }
+    }
+
+    private void poll() {
+        this.pollPending.set(false);
+        int free = this.slots.drainPermits();
+        if (free == 0) {
+            return;
+        }
+
+        List<ClaimedJob> claimed;
+        List<UUID> abandoned = new ArrayList<>();
+        try {
+            claimed = this.transactionTemplate.execute(status -> this.claim(free, abandoned));
+        } catch (RuntimeException e) {
+            this.slots.release(free);
+            logger.warn("Failed to claim inference jobs: {}", e.getMessage());
+            return;
+        }
+
+        // Reported only once committed, so watchers reading the job see it failed
+        for (UUID id : abandoned) {
+            this.failed.increment();
+            this.watchers.finished(id);
+        }
+        this.slots.release(free - claimed.size());
+        for (ClaimedJob job : claimed) {
+            this.run(job);
+        }
+    }
+
+    // First each priority takes its share of the free slots, then whatever a
+    // priority could not use goes to the others, so slots never sit idle
+    // while any job is waiting
+    private List<ClaimedJob> claim(int free, List<UUID> abandoned) {
+        Instant now = Instant.now();
+        int[] shares = this.allocate(free);
+        List<ClaimedJob> claimed = new ArrayList<>(free);
+        for (InferenceJob.Priority priority : PRIORITIES) {
+            claimed.addAll(this.lock(priority, shares[priority.ordinal()], now, abandoned));
+        }
+        for (InferenceJob.Priority priority : PRIORITIES) {
+            if (claimed.size() == free) {
+                break;
+            }
+            claimed.addAll(this.lock(priority, free - claimed.size(), now, abandoned));
+        }
+        return claimed;
+    }
+
+    private int[] allocate(int free) {
+        int[] shares = new int[PRIORITIES.length];
+        for (int slot = 0; slot < free; slot++) {
+            int next = 0;
+            for (int i = 0; i < PRIORITIES.length; i++) {
+                this.credits[i] += this.weights[i];
+                if (this.credits[i] > this.credits[next]) {
+                    next = i;
+                }
+            }
+            this.credits[next] -= this.totalWeight;
+            shares[next]++;
+        }
+        return shares;
+    }
+
+    private List<ClaimedJob> lock(InferenceJob.Priority priority, int limit, Instant now, List<UUID> abandoned) {
+        if (limit == 0) {
+            return List.of();
+        }
+        List<ClaimedJob> claimed = new ArrayList<>(limit);
+        for (InferenceJobRepository.AvailableJob job : this.jobRepository.lockAvailable(priority.ordinal(), now, limit)) {
+            // Only reachable by jobs whose workers kept dying mid-run
+            if (job.getAttempts() >= this.maxAttempts) {
+                this.jobRepository.markAbandoned(job.getId(), "Gave up after " + job.getAttempts() + " attempts", now);
+                abandoned.add(job.getId());
+                continue;
+            }
+            claimed.add(new ClaimedJob(
+                job.getId(),
+                (short) (job.getAttempts() + 1),
+                job.getEmail(),
+                BreathCodec.decode(job.getSamples(), job.getSampleCount())
+            ));
+        }
+        // Written before the next lock, which would otherwise see these jobs
+        // as still queued and return them again
+        if (!claimed.isEmpty()) {
+            this.jobRepository.markRunning(claimed.stream().map(ClaimedJob::id).toList(), now.plus(this.lease));
+        }
+        return claimed;
+    }
+
+    private void run(ClaimedJob job) {
+        CompletableFuture<ResponseEntity<byte[]>> result;
+        try {
+            ProfileResponse profile = this.profileService.getProfileByEmail(job.email());
+            result = this.modelService.runInferenceAsync(profile, job.samples());
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((response, ex) -> {
+            try {
+                this.finish(job, response, ex);
+            } catch (RuntimeException e) {
+                // The lease will run out and the job will be picked up again
+                logger.warn("Failed to record the outcome of inference job {}: {}", job.id(), e.getMessage());
+            } finally {
+                this.slots.release();
+                this.wakeUp();
+            }
+        });
+    }
+
+    private void finish(ClaimedJob job, ResponseEntity<byte[]> response, Throwable ex) {
+        Instant now = Instant.now();
+        if (ex == null) {
+            String diagnosis = new String(response.getBody(), StandardCharsets.UTF_8);
+            if (this.jobRepository.markSucceeded(job.id(), job.attempt(), diagnosis, now) > 0) {
+                this.succeeded.increment();
+                this.watchers.finished(job.id());
+            }
+            return;
+        }
+
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        // A rejected input would be rejected again, so only failures on the model's side are retried
+        boolean temporary = cause instanceof ModelUnavailableException
+            || (cause instanceof GatewayException && !(cause instanceof ModelRejectedException));
+        if (temporary && job.attempt() < this.maxAttempts) {
+            Instant retryAt = now.plus(this.retryBackoff.multipliedBy(job.attempt()));
+            if (this.jobRepository.requeue(job.id(), job.attempt(), cause.getMessage(), retryAt) > 0) {
+                this.retried.increment();
+            }
+        } else if (this.jobRepository.markFailed(job.id(), job.attempt(), cause.getMessage(), now) > 0) {
+            this.failed.increment();
+            this.watchers.finished(job.id());
+        }
+    }
+
+    private void requeueExpired() {
+        try {
+            int requeued = this.jobRepository.requeueExpired(Instant.now());
+            if (requeued > 0) {
+                logger.warn("Requeued {} inference jobs whose worker did not finish them in time", requeued);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to requeue expired inference jobs: {}", e.getMessage());
+        }
+    }
+
+    private void purgeFinished() {
+        Instant cutoff = Instant.now().minus(this.retention);
+        try {
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = this.jobRepository.deleteFinishedBefore(cutoff, PURGE_BATCH_SIZE);
+                purged += deleted;
+            } while (deleted == PURGE_BATCH_SIZE);
+            if (purged > 0) {
+                logger.info("Deleted {} inference jobs finished more than {} ago", purged, this.retention);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to delete finished inference jobs: {}", e.getMessage());
+        }
+    }
+
+    // Jobs still running when the instance stops keep their lease and are
+    // queued again by another instance once it runs out
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+    }
+}
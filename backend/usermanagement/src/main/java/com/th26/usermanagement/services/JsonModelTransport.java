@@ -0,0 +1,39 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+/**
+ * Sends predictions as JSON to {@code /predict} over the pooled model client.
+ */
+@Component
+@ConditionalOnProperty(name = "com.th26.model.transport", havingValue = "json", matchIfMissing = true)
+public class JsonModelTransport implements ModelTransport {
+    private final RestClient modelClient;
+
+    public JsonModelTransport(@Qualifier("modelRestClient") RestClient modelClient) {
+        this.modelClient = modelClient;
+    }
+
+    @Override
+    public ResponseEntity<byte[]> predict(ModelRerouteRequest request) {
+        // The reply is relayed as raw bytes so it is never decoded into a String;
+        // only the status and content type are carried over from the model's headers.
+        ResponseEntity<byte[]> response = this.modelClient.post()
+            .uri("/predict")
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(request)
+            .retrieve()
+            .toEntity(byte[].class);
+
+        return ResponseEntity.status(response.getStatusCode())
+            .contentType(response.getHeaders().getContentType())
+            .body(response.getBody());
+    }
+}
@@ -0,0 +1,221 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+import com.th26.usermanagement.exceptions.GatewayException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects concurrent predictions into a single call to the model's batch
+ * endpoint. A batch is sent once it reaches the maximum size or once the
+ * window opened by its first request has elapsed, whichever comes first.
+ */
+@Component
+public class ModelBatchDispatcher implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(ModelBatchDispatcher.class);
+    private static final ParameterizedTypeReference<List<String>> BATCH_RESULTS = new ParameterizedTypeReference<>() {};
+
+    private final RestClient modelClient;
+    private final ModelCircuitBreaker circuitBreaker;
+    private final ModelGatewayMetrics gatewayMetrics;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final Duration window;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("model-batch-window").daemon().factory()
+    );
+    private final ExecutorService sender = Executors.newThreadPerTaskExecutor(
+        Thread.ofVirtual().name("model-batch-", 0).factory()
+    );
+
+    private final DistributionSummary batchSize;
+    private final DistributionSummary batchFill;
+    private final Timer windowDelay;
+
+    private final Object lock = new Object();
+    private List<PendingPrediction> pending = new ArrayList<>();
+
+    private record PendingPrediction(
+        ModelRerouteRequest request,
+        CompletableFuture<ResponseEntity<byte[]>> result,
+        long enqueuedAt
+    ) {}
+
+    public ModelBatchDispatcher(
+        @Qualifier("modelRestClient") RestClient modelClient,
+        ModelCircuitBreaker circuitBreaker,
+        ModelGatewayMetrics gatewayMetrics,
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.model.batch.enabled}") boolean enabled,
+        @Value("${com.th26.model.batch.max-size}") int maxBatchSize,
+        @Value("${com.th26.model.batch.window}") Duration window
+    ) {
+        this.modelClient = modelClient;
+        this.circuitBreaker = circuitBreaker;
+        this.gatewayMetrics = gatewayMetrics;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.window = window;
+        this.batchSize = DistributionSummary.builder("model.batch.size")
+            .description("Number of predictions sent per batch call")
+            .register(meterRegistry);
+        this.batchFill = DistributionSummary.builder("model.batch.fill")
+            .description("Batch size as a fraction of the configured maximum")
+            .register(meterRegistry);
+        this.windowDelay = Timer.builder("model.batch.window.delay")
+            .description("Time a prediction waited for its batch to be sent")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    public CompletableFuture<ResponseEntity<byte[]>> submit(ModelRerouteRequest request) {
+        PendingPrediction prediction = new PendingPrediction(request, new CompletableFuture<>(), System.nanoTime());
+        List<PendingPrediction> full = null;
+
+        synchronized (this.lock) {
+            this.pending.add(prediction);
+            if (this.pending.size() >= this.maxBatchSize) {
+                full = this.pending;
+                this.pending = new ArrayList<>();
+            } else if (this.pending.size() == 1) {
+                List<PendingPrediction> batch = this.pending;
+                this.scheduler.schedule(() -> this.flush(batch), this.window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (full != null) {
+            List<PendingPrediction> batch = full;
+            this.sender.execute(() -> this.send(batch));
+        }
+        return prediction.result();
+    }
+
+    // Only flushes if the batch is still the one being filled; if it was
+    // already sent because it reached the maximum size, there is nothing to do.
+    private void flush(List<PendingPrediction> batch) {
+        synchronized (this.lock) {
+            if (this.pending != batch) {
+                return;
+            }
+            this.pending = new ArrayList<>();
+        }
+        this.sender.execute(() -> this.send(batch));
+    }
+
+    private void send(List<PendingPrediction> batch) {
+        long sentAt = System.nanoTime();
+        for (PendingPrediction prediction : batch) {
+            this.windowDelay.record(sentAt - prediction.enqueuedAt(), TimeUnit.NANOSECONDS);
+        }
+        this.batchSize.record(batch.size());
+        this.batchFill.record((double) batch.size() / this.maxBatchSize);
+
+        List<String> results;
+        Timer.Sample sample = this.gatewayMetrics.start();
+        try {
+            results = this.modelClient.post()
+                .uri("/predict/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(batch.stream().map(PendingPrediction::request).toList())
+                .retrieve()
+                .body(BATCH_RESULTS);
+        } catch (RestClientResponseException e) {
+            if (e.getStatusCode().is5xxServerError()) {
+                this.circuitBreaker.recordFailure();
+                this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_BATCH, ModelGatewayMetrics.OUTCOME_SERVER_ERROR);
+            } else {
+                this.circuitBreaker.recordSuccess();
+                this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_BATCH, ModelGatewayMetrics.OUTCOME_CLIENT_ERROR);
+            }
+            logger.warn("Model service returned {} for a batch: {}", e.getStatusCode(), e.getResponseBodyAsString());
+            this.failAll(batch);
+            return;
+        } catch (RestClientException e) {
+            this.circuitBreaker.recordFailure();
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_BATCH, ModelGatewayMetrics.OUTCOME_UNREACHABLE);
+            logger.warn("Model service unreachable for a batch: {}", e.getMessage());
+            this.failAll(batch);
+            return;
+        } catch (RuntimeException | Error e) {
+            // Failed before the model answered, so hand back the callers' permissions
+            this.circuitBreaker.releasePermission();
+            this.failAll(batch);
+            throw e;
+        }
+
+        if (results == null || results.size() != batch.size()) {
+            this.circuitBreaker.recordFailure();
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_BATCH, ModelGatewayMetrics.OUTCOME_SERVER_ERROR);
+            logger.warn("Model service returned a malformed batch response");
+            this.failAll(batch);
+            return;
+        }
+
+        this.circuitBreaker.recordSuccess();
+        this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_BATCH, ModelGatewayMetrics.OUTCOME_SUCCESS);
+        for (int i = 0; i < batch.size(); i++) {
+            String result = results.get(i);
+            if (result == null) {
+                batch.get(i).result().completeExceptionally(
+                    new GatewayException("Error communicating with model service")
+                );
+            } else {
+                batch.get(i).result().complete(ResponseEntity.ok()
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(result.getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    private void failAll(List<PendingPrediction> batch) {
+        for (PendingPrediction prediction : batch) {
+            prediction.result().completeExceptionally(
+                new GatewayException("Error communicating with model service")
+            );
+        }
+    }
+
+    @Override
+    public void destroy() {
+        this.scheduler.shutdownNow();
+        List<PendingPrediction> remaining;
+        synchronized (this.lock) {
+            remaining = this.pending;
+            this.pending = new ArrayList<>();
+        }
+        if (!remaining.isEmpty()) {
+            this.sender.execute(() -> this.send(remaining));
+        }
+        this.sender.close();
+    }
+}
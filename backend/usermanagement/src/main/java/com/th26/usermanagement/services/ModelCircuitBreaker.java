@@ -0,0 +1,127 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.th26.usermanagement.exceptions.ModelUnavailableException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker for calls to the model service.
+ *
+ * <p>After {@code failure-threshold} consecutive failed calls the breaker opens
+ * and callers are turned away with a 503 until {@code open-duration} has
+ * passed. The next caller is then let through as a single half-open probe:
+ * if it succeeds the breaker closes, otherwise it opens again. A probe that
+ * ends without reaching the model hands its permission back, and one that has
+ * not reported back within the model client deadline is assumed lost, so in
+ * either case the next caller probes instead.
+ */
+@Component
+public class ModelCircuitBreaker {
+    private static final Logger logger = LoggerFactory.getLogger(ModelCircuitBreaker.class);
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Duration probeTimeout;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+    private final AtomicLong probeStartedAt = new AtomicLong();
+
+    public ModelCircuitBreaker(
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.model.circuit-breaker.failure-threshold}") int failureThreshold,
+        @Value("${com.th26.model.circuit-breaker.open-duration}") Duration openDuration,
+        @Value("${com.th26.model.client.deadline}") Duration probeTimeout
+    ) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.probeTimeout = probeTimeout;
+        Gauge.builder("model.circuit.state", this.state, state -> state.get().ordinal())
+            .description("Model service circuit breaker state (0 = closed, 1 = half-open, 2 = open)")
+            .register(meterRegistry);
+    }
+
+    public State getState() {
+        return this.state.get();
+    }
+
+    /**
+     * Returns normally if a call to the model may proceed, otherwise throws
+     * {@link ModelUnavailableException} carrying the time left until the next probe.
+     */
+    public void acquirePermission() {
+        State current = this.state.get();
+        if (current == State.CLOSED) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (current == State.HALF_OPEN) {
+            long started = this.probeStartedAt.get();
+            if (now - started >= this.probeTimeout.toNanos() && this.probeStartedAt.compareAndSet(started, now)) {
+                return;
+            }
+        }
+
+        long remainingNanos = this.openedAt + this.openDuration.toNanos() - now;
+        if (current == State.OPEN && remainingNanos <= 0) {
+            // Set first, so no caller sees the new half-open state with a stale probe time
+            this.probeStartedAt.set(now);
+            if (this.state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+                return;
+            }
+        }
+
+        throw new ModelUnavailableException(
+            "Service unavailable - model service is not responding",
+            Duration.ofNanos(Math.max(remainingNanos, 0)).plus(Duration.ofSeconds(1))
+        );
+    }
+
+    /**
+     * Hands back a permission whose call ended without an answer from the model,
+     * for example because it was rejected locally. If it was the half-open probe,
+     * the next caller is let through as the probe.
+     */
+    public void releasePermission() {
+        if (this.state.get() == State.HALF_OPEN) {
+            this.probeStartedAt.set(System.nanoTime() - this.probeTimeout.toNanos());
+        }
+    }
+
+    public void recordSuccess() {
+        this.consecutiveFailures.set(0);
+        this.state.set(State.CLOSED);
+    }
+
+    public void recordFailure() {
+        if (this.state.get() == State.HALF_OPEN) {
+            this.open();
+        } else if (this.consecutiveFailures.incrementAndGet() >= this.failureThreshold
+                && this.state.get() == State.CLOSED) {
+            this.open();
+        }
+    }
+
+    private void open() {
+        this.openedAt = System.nanoTime();
+        this.state.set(State.OPEN);
+        this.consecutiveFailures.set(0);
+        logger.warn("Model service circuit breaker opened for {}", this.openDuration);
+    }
+}
@@ -0,0 +1,40 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times outbound calls to the model service, tagged by the kind of call and
+ * how it ended, so model latency can be told apart from the rest of a request.
+ */
+@Component
+public class ModelGatewayMetrics {
+    public static final String CALL_PREDICT = "predict";
+    public static final String CALL_BATCH = "batch";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_CLIENT_ERROR = "client_error";
+    public static final String OUTCOME_SERVER_ERROR = "server_error";
+    public static final String OUTCOME_UNREACHABLE = "unreachable";
+
+    private final MeterRegistry meterRegistry;
+
+    public ModelGatewayMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(this.meterRegistry);
+    }
+
+    public void record(Timer.Sample sample, String call, String outcome) {
+        sample.stop(Timer.builder("model.gateway.requests")
+            .description("Outbound calls to the model service")
+            .tag("call", call)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(this.meterRegistry));
+    }
+}
@@ -0,0 +1,65 @@
+package com.th26.usermanagement.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a sampled fraction of the requests sent to the model service.
+ *
+ * <p>Breath data is truncated to its first few samples and formatted directly
+ * from the float array, so a logged request is never serialized a second time.
+ * Requests that are not sampled cost one random draw.
+ */
+@Component
+public class ModelPayloadLogger {
+    private static final Logger logger = LoggerFactory.getLogger(ModelPayloadLogger.class);
+
+    private final double sampleRate;
+    private final int maxSamples;
+
+    public ModelPayloadLogger(
+        @Value("${com.th26.model.logging.sample-rate}") double sampleRate,
+        @Value("${com.th26.model.logging.max-samples}") int maxSamples
+    ) {
+        this.sampleRate = sampleRate;
+        this.maxSamples = maxSamples;
+    }
+
+    public void logRequest(ModelRerouteRequest request) {
+        if (this.sampleRate <= 0 || !logger.isInfoEnabled()
+                || ThreadLocalRandom.current().nextDouble() >= this.sampleRate) {
+            return;
+        }
+
+        float[] breathData = request.getBreathData();
+        logger.atInfo()
+            .addKeyValue("sex", request.getSex())
+            .addKeyValue("height_in", request.getHeight())
+            .addKeyValue("weight_lbs", request.getWeight())
+            .addKeyValue("breath_samples", breathData.length)
+            .addKeyValue("breath_data", this.preview(breathData))
+            .log("Sending request to model service");
+    }
+
+    private String preview(float[] breathData) {
+        int shown = Math.min(breathData.length, this.maxSamples);
+        StringBuilder builder = new StringBuilder(shown * 12 + 8).append('[');
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(breathData[i]);
+        }
+        if (shown < breathData.length) {
+            builder.append(", ...");
+        }
+        return builder.append(']').toString();
+    }
+}
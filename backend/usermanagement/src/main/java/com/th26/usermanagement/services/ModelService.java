@@ -1,11 +1,13 @@
 package com.th26.usermanagement.services;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 
-import java.math.BigDecimal;
-import java.util.List;
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+
+import java.util.concurrent.CompletableFuture;
 
 public interface ModelService {
-    ResponseEntity<String> runInference(String email, List<BigDecimal> inputData) throws MethodArgumentNotValidException;
+    ResponseEntity<byte[]> runInference(String email, float[] breathData);
+    CompletableFuture<ResponseEntity<byte[]>> runInferenceAsync(String email, float[] breathData);
+    CompletableFuture<ResponseEntity<byte[]>> runInferenceAsync(ProfileResponse profile, float[] breathData);
 }
@@ -1,75 +1,322 @@
 package com.th26.usermanagement.services;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
-import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestClientResponseException;
-import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
 import com.th26.usermanagement.dtos.responses.ProfileResponse;
 import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.exceptions.ModelRejectedException;
+import com.th26.usermanagement.exceptions.ModelUnavailableException;
 
-import java.math.BigDecimal;
-import java.util.List;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class ModelServiceImpl implements ModelService {
+    private static final Logger logger = LoggerFactory.getLogger(ModelServiceImpl.class);
+
     private final ProfileService profileService;
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private final String modelEndpoint;
+    private final ModelTransport modelTransport;
+    private final AsyncTaskExecutor modelExecutor;
+    private final ModelBatchDispatcher batchDispatcher;
+    private final InferenceCache inferenceCache;
+    private final ModelCircuitBreaker circuitBreaker;
+    private final ModelGatewayMetrics gatewayMetrics;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeDelay;
+    private final ModelPayloadLogger payloadLogger;
+    private final RecordingWriter recordingWriter;
+    private final BreathPreprocessor preprocessor;
+    private final SingleFlight<String, ResponseEntity<byte[]>> inferences;
 
-    public ModelServiceImpl(ProfileService profileService, @Value("${com.th26.model.endpoint}") String modelEndpoint) {
-        this.modelEndpoint = modelEndpoint;
+    public ModelServiceImpl(
+        ProfileService profileService,
+        ModelTransport modelTransport,
+        @Qualifier("modelExecutor") AsyncTaskExecutor modelExecutor,
+        ModelBatchDispatcher batchDispatcher,
+        InferenceCache inferenceCache,
+        ModelCircuitBreaker circuitBreaker,
+        ModelGatewayMetrics gatewayMetrics,
+        ModelPayloadLogger payloadLogger,
+        RecordingWriter recordingWriter,
+        BreathPreprocessor preprocessor,
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.model.hedge.enabled}") boolean hedgeEnabled,
+        @Value("${com.th26.model.hedge.delay}") Duration hedgeDelay
+    ) {
         this.profileService = profileService;
-        this.restTemplate = new RestTemplate();
+        this.modelTransport = modelTransport;
+        this.modelExecutor = modelExecutor;
+        this.batchDispatcher = batchDispatcher;
+        this.inferenceCache = inferenceCache;
+        this.circuitBreaker = circuitBreaker;
+        this.gatewayMetrics = gatewayMetrics;
+        this.payloadLogger = payloadLogger;
+        this.recordingWriter = recordingWriter;
+        this.preprocessor = preprocessor;
+        this.inferences = new SingleFlight<>("inferences", meterRegistry);
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> runInferenceAsync(String email, float[] breathData) {
+        try {
+            return CompletableFuture.supplyAsync(() -> this.buildModelRequest(email, breathData), this.modelExecutor)
+                .thenCompose(modelRequest -> this.predictCached(modelRequest, () -> this.recordingWriter.submit(email, breathData)));
+        } catch (TaskRejectedException e) {
+            throw new ModelUnavailableException("Service unavailable - too many pending predictions");
+        }
+    }
+
+    // For callers that already hold the profile, such as a streaming session or
+    // a queued job. The samples are not stored as a recording here: streamed
+    // windows overlap, and jobs store theirs once when submitted.
+    @Override
+    public CompletableFuture<ResponseEntity<byte[]>> runInferenceAsync(ProfileResponse profile, float[] breathData) {
+        try {
+            return CompletableFuture.supplyAsync(() -> this.buildModelRequest(profile, breathData), this.modelExecutor)
+                .thenCompose(modelRequest -> this.predictCached(modelRequest, () -> {}));
+        } catch (TaskRejectedException e) {
+            throw new ModelUnavailableException("Service unavailable - too many pending predictions");
+        }
     }
+
     @Override
-    public ResponseEntity<String> runInference(String email, List<BigDecimal> inputData) throws MethodArgumentNotValidException {
+    public ResponseEntity<byte[]> runInference(String email, float[] breathData) {
+        try {
+            return this.predictCached(
+                this.buildModelRequest(email, breathData), () -> this.recordingWriter.submit(email, breathData)
+            ).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private ModelRerouteRequest buildModelRequest(String email, float[] breathData) {
         ProfileResponse userProfile = this.profileService.getProfileByEmail(email);
-        ModelRerouteRequest modelRequest = ModelRerouteRequest.builder()
+        return this.buildModelRequest(userProfile, breathData);
+    }
+
+    private ModelRerouteRequest buildModelRequest(ProfileResponse userProfile, float[] breathData) {
+        return ModelRerouteRequest.builder()
             .height(userProfile.getHeight())
             .weight(userProfile.getWeight())
             .sex(userProfile.getSex().toLowerCase())
-            .breathData(inputData)
+            .breathData(this.preprocessor.process(breathData))
             .build();
+    }
+
+    // storeRecording runs only for an upload that reaches the model, so a retry
+    // answered from the cache or a duplicate that joins a call in flight is not
+    // stored a second time
+    private CompletableFuture<ResponseEntity<byte[]>> predictCached(ModelRerouteRequest modelRequest, Runnable storeRecording) {
+        String key = this.inferenceCache.keyFor(modelRequest);
+        ResponseEntity<byte[]> cached = this.inferenceCache.get(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // Duplicate uploads that arrive while the first is still at the model share its call
+        return this.inferences.execute(key, () -> {
+            storeRecording.run();
+            return this.dispatch(modelRequest).thenApply(response -> {
+                this.inferenceCache.put(key, response);
+                return response;
+            });
+        });
+    }
+
+    // Every path past acquirePermission either records the model's answer or
+    // hands the permission back, so a half-open probe is never lost
+    private CompletableFuture<ResponseEntity<byte[]>> dispatch(ModelRerouteRequest modelRequest) {
+        this.circuitBreaker.acquirePermission();
+        try {
+            this.payloadLogger.logRequest(modelRequest);
+            if (this.batchDispatcher.isEnabled()) {
+                return this.batchDispatcher.submit(modelRequest);
+            }
+            if (this.hedgeEnabled) {
+                return this.predictHedged(modelRequest);
+            }
+        } catch (RuntimeException | Error e) {
+            this.circuitBreaker.releasePermission();
+            throw e;
+        }
+        return CompletableFuture.completedFuture(this.predict(modelRequest, this::settle));
+    }
 
+    // Sends a second, identical request if the first has not answered within the
+    // hedge delay and completes with whichever succeeds first. The slower call is
+    // left to finish or hit the client deadline, since a blocking exchange cannot
+    // be withdrawn midway. No hedge is sent while the breaker is not closed, nor
+    // once the first call has failed: that failure is returned straight away.
+    private CompletableFuture<ResponseEntity<byte[]>> predictHedged(ModelRerouteRequest modelRequest) {
+        HedgedPrediction prediction = new HedgedPrediction(modelRequest);
         try {
-            String jsonBody = this.objectMapper.writeValueAsString(modelRequest);
-            System.out.println("Sending request to model service: " + jsonBody);
-
-//            ResponseEntity<String> response = this.restTemplate.post()
-//                .uri("/predict")
-//                .contentType(MediaType.APPLICATION_JSON)
-//                .accept(MediaType.APPLICATION_JSON)
-//                .body(jsonBody)
-//                .retrieve()
-//                .toEntity(String.class);
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            HttpEntity<ModelRerouteRequest> entity = new HttpEntity<>(modelRequest, headers);
-            ResponseEntity<String> response = this.restTemplate.postForEntity(
-                this.modelEndpoint + "/predict",
-                entity,
-                String.class
-            );
+            this.modelExecutor.execute(prediction::attempt);
+        } catch (TaskRejectedException e) {
+            throw new ModelUnavailableException("Service unavailable - too many pending predictions");
+        }
+        CompletableFuture.delayedExecutor(this.hedgeDelay.toMillis(), TimeUnit.MILLISECONDS).execute(prediction::hedge);
+        return prediction.result;
+    }
 
+    // Reports how the call went to the breaker exactly once, before returning or throwing
+    private ResponseEntity<byte[]> predict(ModelRerouteRequest modelRequest, Consumer<Health> outcome) {
+        Timer.Sample sample = this.gatewayMetrics.start();
+        Health health = Health.UNKNOWN;
+        try {
+            ResponseEntity<byte[]> response = this.modelTransport.predict(modelRequest);
+            health = Health.UP;
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_PREDICT, ModelGatewayMetrics.OUTCOME_SUCCESS);
             return response;
         } catch (RestClientResponseException e) {
-            System.err.println("Model service error: " + e.getResponseBodyAsString());
+            logger.warn("Model service returned {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
+            if (e.getStatusCode().is5xxServerError()) {
+                health = Health.DOWN;
+                this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_PREDICT, ModelGatewayMetrics.OUTCOME_SERVER_ERROR);
+                throw new GatewayException("Error communicating with model service");
+            }
+            // A 4xx means the model is up but rejected this input, which says nothing about its health
+            health = Health.UP;
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_PREDICT, ModelGatewayMetrics.OUTCOME_CLIENT_ERROR);
+            throw new ModelRejectedException("Model service rejected the request");
+        } catch (ResourceAccessException e) {
+            health = Health.DOWN;
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_PREDICT, ModelGatewayMetrics.OUTCOME_UNREACHABLE);
+            logger.warn("Model service unreachable: {}", e.getMessage());
             throw new GatewayException("Error communicating with model service");
-        } catch (JsonProcessingException e) {
-            System.err.println("JSON processing error: " + e.getMessage());
-            throw new GatewayException("Error processing request data");
+        } catch (RestClientException | InvalidMediaTypeException e) {
+            // The model answered with something that could not be read, e.g. an unexpected content type
+            health = Health.DOWN;
+            this.gatewayMetrics.record(sample, ModelGatewayMetrics.CALL_PREDICT, ModelGatewayMetrics.OUTCOME_SERVER_ERROR);
+            logger.warn("Unreadable response from model service: {}", e.getMessage());
+            throw new GatewayException("Error communicating with model service");
+        } finally {
+            outcome.accept(health);
+        }
+    }
+
+    private void settle(Health health) {
+        switch (health) {
+            case UP -> this.circuitBreaker.recordSuccess();
+            case DOWN -> this.circuitBreaker.recordFailure();
+            case UNKNOWN -> this.circuitBreaker.releasePermission();
+        }
+    }
+
+    // What a call to the model showed about its health. UNKNOWN means the call
+    // failed before the model answered, so the breaker's permission is handed back.
+    private enum Health { UNKNOWN, DOWN, UP }
+
+    // The breaker granted the dispatch one permission, so however many calls are
+    // sent it is settled once: as soon as one call succeeds, or with the best
+    // health any call showed once the result has failed.
+    private final class HedgedPrediction {
+        private final ModelRerouteRequest modelRequest;
+        private final CompletableFuture<ResponseEntity<byte[]>> result = new CompletableFuture<>();
+        private int outstanding = 1;
+        private boolean hedgeClosed;
+        private boolean settled;
+        private Health health = Health.UNKNOWN;
+        private Throwable firstFailure;
+
+        private HedgedPrediction(ModelRerouteRequest modelRequest) {
+            this.modelRequest = modelRequest;
+        }
+
+        private void attempt() {
+            ResponseEntity<byte[]> response;
+            try {
+                response = ModelServiceImpl.this.predict(this.modelRequest, this::report);
+            } catch (Throwable e) {
+                this.failed(e);
+                return;
+            }
+            this.succeeded(response);
+        }
+
+        private void hedge() {
+            synchronized (this) {
+                boolean send = !this.hedgeClosed && !this.result.isDone()
+                    && ModelServiceImpl.this.circuitBreaker.getState() == ModelCircuitBreaker.State.CLOSED;
+                this.hedgeClosed = true;
+                if (!send) {
+                    return;
+                }
+                this.outstanding++;
+            }
+            try {
+                ModelServiceImpl.this.modelExecutor.execute(this::attempt);
+            } catch (TaskRejectedException e) {
+                // The hedge never ran, so it only counts as one call fewer outstanding
+                this.failed(null);
+            }
+        }
+
+        private synchronized void report(Health health) {
+            if (health.compareTo(this.health) > 0) {
+                this.health = health;
+            }
         }
 
+        private void succeeded(ResponseEntity<byte[]> response) {
+            Health outcome;
+            synchronized (this) {
+                this.outstanding--;
+                this.hedgeClosed = true;
+                if (this.settled) {
+                    return;
+                }
+                this.settled = true;
+                outcome = this.health;
+            }
+            ModelServiceImpl.this.settle(outcome);
+            this.result.complete(response);
+        }
+
+        // A rejection or a failure with no other call outstanding fails the
+        // result at once; the timer then finds the hedge closed and sends nothing
+        private void failed(Throwable e) {
+            Health outcome;
+            Throwable failure;
+            synchronized (this) {
+                this.outstanding--;
+                if (this.firstFailure == null) {
+                    this.firstFailure = e;
+                }
+                boolean rejected = e instanceof ModelRejectedException;
+                if (this.settled || (!rejected && this.outstanding > 0)) {
+                    return;
+                }
+                this.settled = true;
+                this.hedgeClosed = true;
+                outcome = this.health;
+                failure = rejected ? e : this.firstFailure;
+            }
+            ModelServiceImpl.this.settle(outcome);
+            this.result.completeExceptionally(failure);
+        }
     }
 }
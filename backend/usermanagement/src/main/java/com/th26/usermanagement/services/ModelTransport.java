@@ -0,0 +1,22 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+
+/**
+ * Wire protocol for single predictions sent to the model service, selected
+ * with {@code com.th26.model.transport}. Implementations report failures the
+ * same way as {@code RestClient}, so callers handle every transport alike.
+ */
+public interface ModelTransport {
+    /**
+     * Returns the model's reply, keeping only its status, content type and body.
+     *
+     * @throws RestClientResponseException if the model replied with an error status
+     * @throws ResourceAccessException if the model could not be reached
+     */
+    ResponseEntity<byte[]> predict(ModelRerouteRequest request);
+}
@@ -0,0 +1,85 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.exceptions.RateLimitExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user token bucket for predictions: each user may make {@code burst}
+ * predictions at once, refilled at {@code requests-per-minute}.
+ *
+ * <p>Each bucket is a single {@link AtomicLong} holding the time at which it
+ * will be full again (the generic cell rate algorithm), updated with a CAS, so
+ * a check takes no lock. Once a user's bucket exists, a check allocates only
+ * the lowercased key, and nothing for an email that is already lowercase.
+ * Buckets live in a bounded Caffeine table and expire once idle; a bucket
+ * that expires or is evicted has refilled or simply starts full again.
+ */
+@Component
+public class PredictRateLimiter {
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+    private final Counter rejected;
+
+    public PredictRateLimiter(
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.ratelimit.predict.enabled}") boolean enabled,
+        @Value("${com.th26.ratelimit.predict.requests-per-minute}") int requestsPerMinute,
+        @Value("${com.th26.ratelimit.predict.burst}") int burst,
+        @Value("${com.th26.ratelimit.predict.idle-timeout}") Duration idleTimeout,
+        @Value("${com.th26.ratelimit.predict.maximum-users}") long maximumUsers
+    ) {
+        this.enabled = enabled;
+        this.intervalNanos = Duration.ofMinutes(1).toNanos() / requestsPerMinute;
+        this.burstNanos = this.intervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maximumUsers)
+            .expireAfterAccess(idleTimeout)
+            .build();
+        this.rejected = Counter.builder("ratelimit.predict.rejected")
+            .description("Predictions rejected because the user exceeded their rate limit")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the user's bucket, or throws
+     * {@link RateLimitExceededException} carrying the time until one is available.
+     */
+    public void acquire(String email) {
+        if (!this.enabled) {
+            return;
+        }
+
+        AtomicLong fullAt = this.buckets.get(User.emailKey(email), key -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            // An empty or long-idle bucket is full as of now; overflow-safe comparison
+            long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + this.intervalNanos;
+            long excess = next - now - this.burstNanos;
+            if (excess > 0) {
+                this.rejected.increment();
+                throw new RateLimitExceededException(
+                    "Too many requests - prediction rate limit exceeded",
+                    Duration.ofNanos(excess)
+                );
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+}
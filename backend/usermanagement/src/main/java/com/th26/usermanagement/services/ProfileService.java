@@ -1,9 +1,12 @@
 package com.th26.usermanagement.services;
 
 import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
 import com.th26.usermanagement.exceptions.UserNotFoundException;
 
 public interface ProfileService {
     ProfileResponse getProfileByEmail(String email) throws UserNotFoundException;
+    ProfileVersion getProfileVersion(String email) throws UserNotFoundException;
+    ProfileResponse reloadProfileByEmail(String email) throws UserNotFoundException;
 }
 
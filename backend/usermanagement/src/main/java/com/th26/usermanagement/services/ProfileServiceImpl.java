@@ -1,39 +1,68 @@
 package com.th26.usermanagement.services;
 
+import com.th26.usermanagement.config.CacheConfiguration;
 import com.th26.usermanagement.entities.User;
 import com.th26.usermanagement.exceptions.UserNotFoundException;
-import com.th26.usermanagement.entities.Profile;
 import com.th26.usermanagement.dtos.responses.ProfileResponse;
-import com.th26.usermanagement.repositories.UserRepository;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
+import com.th26.usermanagement.repositories.ProfileRepository;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 public class ProfileServiceImpl implements ProfileService {
-    private final UserRepository userRepository;
+    private final ProfileRepository profileRepository;
+    private final ReadYourWrites readYourWrites;
+    private final SingleFlight<String, ProfileResponse> profileLookups;
 
-    public ProfileServiceImpl(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public ProfileServiceImpl(ProfileRepository profileRepository, ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.profileRepository = profileRepository;
+        this.readYourWrites = readYourWrites;
+        this.profileLookups = new SingleFlight<>("profiles", meterRegistry);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfiguration.PROFILES, key = CacheConfiguration.EMAIL_KEY)
     public ProfileResponse getProfileByEmail(String email) throws UserNotFoundException {
-        User user = this.userRepository.findByEmail(email).orElseThrow(() -> 
+        // Concurrent cache misses for one user share a single query. The transaction
+        // is opened by the repository, so callers that join an in-flight lookup
+        // never hold a database connection while they wait.
+        String emailKey = User.emailKey(email);
+        return this.profileLookups.call(emailKey, () ->
+            this.readYourWrites.read(emailKey, () -> this.profileRepository.findProfileResponseByEmailKey(emailKey)).orElseThrow(() ->
+                new UserNotFoundException("Not found - user does not exist")
+            )
+        );
+    }
+
+    @Override
+    @Caching(
+        evict = @CacheEvict(cacheNames = CacheConfiguration.PROFILES, key = CacheConfiguration.EMAIL_KEY, beforeInvocation = true),
+        put = @CachePut(cacheNames = CacheConfiguration.PROFILES, key = CacheConfiguration.EMAIL_KEY)
+    )
+    public ProfileResponse reloadProfileByEmail(String email) throws UserNotFoundException {
+        // Used once the cached copy is known to be out of date, so the stale entry
+        // is dropped even if the user has since been deleted, and the profile is
+        // read from the primary rather than a replica that may be as far behind
+        String emailKey = User.emailKey(email);
+        return this.readYourWrites.readFromPrimary(() -> this.profileRepository.findProfileResponseByEmailKey(emailKey)).orElseThrow(() ->
             new UserNotFoundException("Not found - user does not exist")
         );
+    }
 
-        Profile profile = user.getProfile();
-        ProfileResponse response = ProfileResponse.builder()
-                .firstName(profile.getFirstName())
-                .lastName(profile.getLastName())
-                .age(profile.getAge())
-                .sex(profile.getSex())
-                .genderIdentity(profile.getGenderIdentity())
-                .height(profile.getHeight())
-                .weight(profile.getWeight())
-                .build();
-        return response;
+    @Override
+    public ProfileVersion getProfileVersion(String email) throws UserNotFoundException {
+        // Not cached: answering a revalidation from a cached copy could tell a
+        // client its profile is current when another instance has changed it.
+        String emailKey = User.emailKey(email);
+        return this.readYourWrites.read(emailKey, () -> this.profileRepository.findProfileVersionByEmailKey(emailKey)).orElseThrow(() ->
+            new UserNotFoundException("Not found - user does not exist")
+        );
     }
 }
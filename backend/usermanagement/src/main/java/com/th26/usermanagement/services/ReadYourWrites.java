@@ -0,0 +1,77 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import com.th26.usermanagement.entities.User;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Sends a user's reads to the primary for a short window after that user was
+ * written, so a change is visible to the next request even if the replicas
+ * have not replayed it yet. Writes are recorded when their transaction
+ * commits; reads made through {@link #read} during the window are pinned to
+ * the primary.
+ */
+@Component
+public class ReadYourWrites {
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Cache<String, Boolean> recentWrites;
+
+    public ReadYourWrites(@Value("${com.th26.datasource.read-your-writes-window}") Duration window) {
+        this.recentWrites = Caffeine.newBuilder()
+            .expireAfterWrite(window)
+            .build();
+    }
+
+    /**
+     * Whether reads on the current thread must go to the primary.
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    public void recordWrite(String email) {
+        String emailKey = User.emailKey(email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            this.recentWrites.put(emailKey, Boolean.TRUE);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ReadYourWrites.this.recentWrites.put(emailKey, Boolean.TRUE);
+            }
+        });
+    }
+
+    public <T> T read(String email, Supplier<T> read) {
+        if (this.recentWrites.getIfPresent(User.emailKey(email)) == null) {
+            return read.get();
+        }
+        return this.readFromPrimary(read);
+    }
+
+    /**
+     * Pins the reads made by {@code read} to the primary regardless of recent writes.
+     */
+    public <T> T readFromPrimary(Supplier<T> read) {
+        if (isPrimaryRequired()) {
+            return read.get();
+        }
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
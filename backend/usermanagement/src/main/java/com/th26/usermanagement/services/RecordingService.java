@@ -0,0 +1,14 @@
+package com.th26.usermanagement.services;
+
+import com.th26.usermanagement.dtos.responses.RecordingResponse;
+import com.th26.usermanagement.dtos.responses.RecordingSummaryResponse;
+import com.th26.usermanagement.exceptions.RecordingNotFoundException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface RecordingService {
+    List<RecordingSummaryResponse> getRecordingsByEmail(String email) throws UserNotFoundException;
+    RecordingResponse getRecording(String email, UUID id, Integer maxPoints) throws RecordingNotFoundException;
+}
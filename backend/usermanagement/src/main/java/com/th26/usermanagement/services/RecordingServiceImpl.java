@@ -0,0 +1,56 @@
+package com.th26.usermanagement.services;
+
+import com.th26.usermanagement.dtos.responses.RecordingResponse;
+import com.th26.usermanagement.dtos.responses.RecordingSummaryResponse;
+import com.th26.usermanagement.entities.Recording;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.exceptions.RecordingNotFoundException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+import com.th26.usermanagement.repositories.RecordingRepository;
+import com.th26.usermanagement.repositories.UserRepository;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class RecordingServiceImpl implements RecordingService {
+    private final RecordingRepository recordingRepository;
+    private final UserRepository userRepository;
+
+    public RecordingServiceImpl(RecordingRepository recordingRepository, UserRepository userRepository) {
+        this.recordingRepository = recordingRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<RecordingSummaryResponse> getRecordingsByEmail(String email) throws UserNotFoundException {
+        List<RecordingSummaryResponse> recordings = this.recordingRepository.findSummariesByEmailKey(User.emailKey(email));
+        if (recordings.isEmpty() && !this.userRepository.existsByEmailKey(User.emailKey(email))) {
+            throw new UserNotFoundException("Not found - user does not exist");
+        }
+        return recordings;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public RecordingResponse getRecording(String email, UUID id, Integer maxPoints) throws RecordingNotFoundException {
+        Recording recording = this.recordingRepository.findByIdAndEmailKey(id, User.emailKey(email)).orElseThrow(() ->
+            new RecordingNotFoundException("Not found - recording does not exist")
+        );
+
+        float[] breathData = maxPoints == null
+            ? BreathCodec.decode(recording.getSamples(), recording.getSampleCount())
+            : BreathCodec.decodeDownsampled(recording.getSamples(), recording.getSampleCount(), maxPoints);
+
+        return RecordingResponse.builder()
+            .id(recording.getId())
+            .recordedAt(recording.getRecordedAt())
+            .sampleCount(recording.getSampleCount())
+            .breathData(breathData)
+            .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.th26.usermanagement.entities.Recording;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.repositories.RecordingRepository;
+import com.th26.usermanagement.repositories.UserRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stores breath recordings in the background. Requests only enqueue their
+ * samples; a single writer thread encodes them and inserts them in batches,
+ * one transaction per batch. If the queue is full the recording is dropped
+ * rather than slowing down the prediction that produced it.
+ */
+@Component
+public class RecordingWriter implements DisposableBean {
+    private static final Logger logger = LoggerFactory.getLogger(RecordingWriter.class);
+
+    private final RecordingRepository recordingRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final BlockingQueue<PendingRecording> queue;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().name("recording-writer").daemon().factory()
+    );
+
+    private final Counter stored;
+    private final Counter dropped;
+    private final DistributionSummary compressionRatio;
+
+    private record PendingRecording(String email, Instant recordedAt, float[] samples) {}
+
+    public RecordingWriter(
+        RecordingRepository recordingRepository,
+        UserRepository userRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${com.th26.recordings.enabled}") boolean enabled,
+        @Value("${com.th26.recordings.queue-capacity}") int queueCapacity,
+        @Value("${com.th26.recordings.batch-size}") int batchSize,
+        @Value("${com.th26.recordings.flush-interval}") Duration flushInterval
+    ) {
+        this.recordingRepository = recordingRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.stored = Counter.builder("recordings.stored")
+            .description("Breath recordings written to the database")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("recordings.dropped")
+            .description("Breath recordings discarded because the write queue was full or the write failed")
+            .register(meterRegistry);
+        this.compressionRatio = DistributionSummary.builder("recordings.compression.ratio")
+            .description("Raw float32 size divided by encoded size per recording")
+            .register(meterRegistry);
+        if (enabled) {
+            this.flusher.scheduleWithFixedDelay(
+                this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    public void submit(String email, float[] samples) {
+        if (!this.enabled) {
+            return;
+        }
+        if (!this.queue.offer(new PendingRecording(email, Instant.now(), samples))) {
+            this.dropped.increment();
+        }
+    }
+
+    private void flush() {
+        List<PendingRecording> batch = new ArrayList<>(this.batchSize);
+        while (this.queue.drainTo(batch, this.batchSize) > 0) {
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> this.write(batch));
+            } catch (RuntimeException e) {
+                this.dropped.increment(batch.size());
+                logger.warn("Failed to store {} breath recordings: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<PendingRecording> batch) {
+        Map<String, User> users = this.userRepository.findByEmailKeyIn(
+            batch.stream().map(pending -> User.emailKey(pending.email())).collect(Collectors.toSet())
+        ).stream().collect(Collectors.toMap(User::getEmailKey, Function.identity()));
+
+        List<Recording> recordings = new ArrayList<>(batch.size());
+        for (PendingRecording pending : batch) {
+            // The user may have been deleted since the prediction was made
+            User user = users.get(User.emailKey(pending.email()));
+            if (user == null) {
+                this.dropped.increment();
+                continue;
+            }
+            byte[] encoded = BreathCodec.encode(pending.samples());
+            this.compressionRatio.record((double) pending.samples().length * Float.BYTES / encoded.length);
+            recordings.add(Recording.builder()
+                .user(user)
+                .recordedAt(pending.recordedAt())
+                .sampleCount(pending.samples().length)
+                .encoding(BreathCodec.XOR_FLOAT32)
+                .samples(encoded)
+                .build());
+        }
+        this.recordingRepository.saveAll(recordings);
+        this.stored.increment(recordings.size());
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        this.flusher.shutdown();
+        this.flusher.awaitTermination(5, TimeUnit.SECONDS);
+        this.flush();
+    }
+}
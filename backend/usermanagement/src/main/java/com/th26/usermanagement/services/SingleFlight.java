@@ -0,0 +1,105 @@
+package com.th26.usermanagement.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the
+ * computation and every caller that arrives while it is in flight receives
+ * the same result or exception. Nothing is remembered once the call
+ * completes; that is what the caches are for.
+ */
+public class SingleFlight<K, V> {
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter coalesced;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.executed = Counter.builder("singleflight.calls")
+            .description("Calls by whether they ran the computation or joined one in flight")
+            .tag("name", name)
+            .tag("result", "executed")
+            .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls")
+            .description("Calls by whether they ran the computation or joined one in flight")
+            .tag("name", name)
+            .tag("result", "coalesced")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code supplier} on the calling thread unless the same key is
+     * already in flight, in which case it waits for that call's result.
+     */
+    public V call(K key, Supplier<V> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            this.coalesced.increment();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        this.executed.increment();
+        try {
+            V value = supplier.get();
+            this.inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (Throwable e) {
+            // Errors too, or the key would stay in flight and block every later caller
+            this.inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous form of {@link #call}: starts {@code supplier} unless the
+     * same key is already in flight, and returns a future for the shared result.
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> supplier) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            this.coalesced.increment();
+            return existing;
+        }
+
+        this.executed.increment();
+        try {
+            supplier.get().whenComplete((value, ex) -> {
+                // Removed before completing, so a caller woken by the result
+                // that retries starts a fresh call instead of rejoining this one
+                this.inFlight.remove(key, flight);
+                if (ex != null) {
+                    flight.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex);
+                } else {
+                    flight.complete(value);
+                }
+            });
+        } catch (Throwable e) {
+            this.inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+        return flight;
+    }
+}
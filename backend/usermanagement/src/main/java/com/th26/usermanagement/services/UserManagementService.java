@@ -2,6 +2,8 @@ package com.th26.usermanagement.services;
 
 import com.th26.usermanagement.dtos.requests.UserRequest;
 import com.th26.usermanagement.dtos.requests.LoginRequest;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
+import com.th26.usermanagement.exceptions.ProfileModifiedException;
 import com.th26.usermanagement.exceptions.UserExistsException;
 import com.th26.usermanagement.exceptions.UserNotFoundException;
 
@@ -9,7 +11,7 @@ import java.util.UUID;
 
 public interface UserManagementService {
     UUID createUser(UserRequest request) throws UserExistsException;
-    void updateUser(UserRequest request) throws UserNotFoundException;
+    ProfileVersion updateUser(UserRequest request, String ifMatch) throws UserNotFoundException, ProfileModifiedException;
     void deleteUserByEmail(String email) throws UserNotFoundException;
     boolean validateCredentials(LoginRequest request);
 }
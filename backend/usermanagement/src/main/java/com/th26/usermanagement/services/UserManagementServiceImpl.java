@@ -1,15 +1,19 @@
 package com.th26.usermanagement.services;
 
 
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.th26.usermanagement.config.CacheConfiguration;
 import com.th26.usermanagement.entities.User;
 import com.th26.usermanagement.entities.Profile;
 import com.th26.usermanagement.repositories.UserRepository;
 import com.th26.usermanagement.repositories.ProfileRepository;
 import com.th26.usermanagement.dtos.requests.UserRequest;
 import com.th26.usermanagement.dtos.requests.LoginRequest;
+import com.th26.usermanagement.dtos.responses.ProfileVersion;
+import com.th26.usermanagement.exceptions.ProfileModifiedException;
 import com.th26.usermanagement.exceptions.UserExistsException;
 import com.th26.usermanagement.exceptions.UserNotFoundException;
 
@@ -19,16 +23,18 @@ import java.util.UUID;
 public class UserManagementServiceImpl implements UserManagementService {
     private final UserRepository userRepository;
     private final ProfileRepository profileRepository;
+    private final ReadYourWrites readYourWrites;
 
-    public UserManagementServiceImpl(UserRepository userRepository, ProfileRepository profileRepository) {
+    public UserManagementServiceImpl(UserRepository userRepository, ProfileRepository profileRepository, ReadYourWrites readYourWrites) {
         this.userRepository = userRepository;
         this.profileRepository = profileRepository;
+        this.readYourWrites = readYourWrites;
     }
 
     @Override
     @Transactional
     public UUID createUser(UserRequest request) throws UserExistsException {
-        if (this.userRepository.findByEmail(request.getEmail()).isPresent()) {
+        if (this.userRepository.existsByEmailKey(User.emailKey(request.getEmail()))) {
             throw new UserExistsException("Conflict - User already exists");
         }
 
@@ -52,18 +58,24 @@ public class UserManagementServiceImpl implements UserManagementService {
 
         User toReturn = this.userRepository.save(newUser);
         this.profileRepository.save(newUserProfile);
+        this.readYourWrites.recordWrite(request.getEmail());
 
         return toReturn.getId();
     }
 
     @Override
     @Transactional
-    public void updateUser(UserRequest request) {
-        User toUpdate = this.userRepository.findByEmail(request.getEmail()).orElseThrow(() -> 
+    @CacheEvict(cacheNames = CacheConfiguration.PROFILES, key = CacheConfiguration.REQUEST_EMAIL_KEY)
+    public ProfileVersion updateUser(UserRequest request, String ifMatch) {
+        User toUpdate = this.userRepository.findByEmailKey(User.emailKey(request.getEmail())).orElseThrow(() -> 
             new UserNotFoundException("Not found - user does not exist")
         );
 
         Profile toUpdateProfile = toUpdate.getProfile();
+        ProfileVersion current = new ProfileVersion(toUpdateProfile.getId(), toUpdateProfile.getVersion());
+        if (ifMatch != null && !current.matches(ifMatch)) {
+            throw new ProfileModifiedException("Precondition failed - profile has been modified");
+        }
 
         if (request.getFirstName() != null) {
             toUpdateProfile.setFirstName(request.getFirstName());
@@ -87,22 +99,31 @@ public class UserManagementServiceImpl implements UserManagementService {
             toUpdateProfile.setWeight(request.getWeight());
         }
         
-        this.profileRepository.save(toUpdateProfile);
+        // Flushed here so the new version is known; an update that raced with
+        // another one since the profile was read fails here instead of
+        // overwriting it.
+        this.profileRepository.saveAndFlush(toUpdateProfile);
+        this.readYourWrites.recordWrite(request.getEmail());
+        return new ProfileVersion(toUpdateProfile.getId(), toUpdateProfile.getVersion());
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfiguration.PROFILES, key = CacheConfiguration.EMAIL_KEY)
     public void deleteUserByEmail(String email) {
-        User toDelete = this.userRepository.findByEmail(email).orElseThrow(() -> 
+        User toDelete = this.userRepository.findByEmailKey(User.emailKey(email)).orElseThrow(() -> 
             new UserNotFoundException("Not found - user does not exist")
         );
         this.userRepository.delete(toDelete);
+        this.readYourWrites.recordWrite(email);
     }
 
     @Override
     @Transactional(readOnly = true)
     public boolean validateCredentials(LoginRequest request) {
-        User user = this.userRepository.findByEmail(request.getEmail()).orElse(null);
+        User user = this.readYourWrites.read(request.getEmail(), () ->
+            this.userRepository.findByEmailKey(User.emailKey(request.getEmail()))
+        ).orElse(null);
         if (user == null) {
             throw new UserNotFoundException("Not found - user does not exist");
         }
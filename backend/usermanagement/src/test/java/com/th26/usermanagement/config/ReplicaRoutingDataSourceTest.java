@@ -0,0 +1,206 @@
+package com.th26.usermanagement.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import com.th26.usermanagement.services.ReadYourWrites;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+    private static final String EMAIL = "jane.doe@example.com";
+    private static final Duration HEALTH_CHECK_INTERVAL = Duration.ofHours(1);
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HikariDataSource primary = mock(HikariDataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private ReplicaRoutingDataSource routing;
+
+    @AfterEach
+    void tearDown() {
+        if (this.routing != null) {
+            this.routing.close();
+        }
+    }
+
+    @Test
+    void sendsReadOnlyTransactionToReplica() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        this.routing = this.routing(List.of(this.replica("replica-1", replicaConnection, () -> 0.0)), HEALTH_CHECK_INTERVAL);
+        DataSource dataSource = this.dataSource();
+
+        assertThat(this.connectionInTransaction(dataSource, true)).isSameAs(replicaConnection);
+        assertThat(this.connectionInTransaction(dataSource, false)).isSameAs(this.primaryConnection);
+        assertThat(this.reads("replica-1")).isEqualTo(1);
+        assertThat(this.reads("primary")).isZero();
+    }
+
+    @Test
+    void sendsEverythingToPrimaryWithoutReplicas() throws SQLException {
+        this.routing = this.routing(List.of(), HEALTH_CHECK_INTERVAL);
+
+        assertThat(this.connectionInTransaction(this.dataSource(), true)).isSameAs(this.primaryConnection);
+    }
+
+    @Test
+    void spreadsReadsAcrossReplicas() throws SQLException {
+        Connection first = mock(Connection.class);
+        Connection second = mock(Connection.class);
+        this.routing = this.routing(
+            List.of(this.replica("replica-1", first, () -> 0.0), this.replica("replica-2", second, () -> 0.0)),
+            HEALTH_CHECK_INTERVAL
+        );
+
+        assertThat(List.of(this.routing.getConnection(), this.routing.getConnection())).containsExactlyInAnyOrder(first, second);
+    }
+
+    @Test
+    void fallsBackToPrimaryWhileReplicaLags() throws SQLException {
+        this.routing = this.routing(List.of(this.replica("replica-1", mock(Connection.class), () -> 10.0)), HEALTH_CHECK_INTERVAL);
+        this.awaitHealthy("replica-1", false);
+
+        assertThat(this.routing.getConnection()).isSameAs(this.primaryConnection);
+        assertThat(this.reads("primary")).isEqualTo(1);
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaFails() throws SQLException {
+        HikariDataSource replica = mock(HikariDataSource.class);
+        when(replica.getPoolName()).thenReturn("replica-1");
+        when(replica.getConnection()).thenThrow(new SQLTransientConnectionException("Connection refused"));
+        this.routing = this.routing(List.of(replica), HEALTH_CHECK_INTERVAL);
+
+        assertThat(this.routing.getConnection()).isSameAs(this.primaryConnection);
+        this.awaitHealthy("replica-1", false);
+    }
+
+    @Test
+    void returnsReplicaToRotationOnceCaughtUp() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        AtomicReference<Double> lag = new AtomicReference<>(10.0);
+        this.routing = this.routing(List.of(this.replica("replica-1", replicaConnection, lag::get)), Duration.ofMillis(50));
+        this.awaitHealthy("replica-1", false);
+
+        lag.set(0.0);
+
+        this.awaitHealthy("replica-1", true);
+
+        assertThat(this.routing.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void sendsReadsToPrimaryWhenPrimaryRequired() throws SQLException {
+        this.routing = this.routing(List.of(this.replica("replica-1", mock(Connection.class), () -> 0.0)), HEALTH_CHECK_INTERVAL);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(15));
+
+        assertThat(readYourWrites.readFromPrimary(this::connection)).isSameAs(this.primaryConnection);
+        assertThat(ReadYourWrites.isPrimaryRequired()).isFalse();
+    }
+
+    @Test
+    void sendsUsersReadsToPrimaryAfterTheirWrite() throws SQLException {
+        Connection replicaConnection = mock(Connection.class);
+        this.routing = this.routing(List.of(this.replica("replica-1", replicaConnection, () -> 0.0)), HEALTH_CHECK_INTERVAL);
+        ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(15));
+
+        readYourWrites.recordWrite(EMAIL);
+
+        assertThat(readYourWrites.read("Jane.Doe@example.com", this::connection)).isSameAs(this.primaryConnection);
+        assertThat(readYourWrites.read("john.doe@example.com", this::connection)).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void rejectsReadYourWritesWindowNoLongerThanReplicaStaleness() {
+        DataSourceConfiguration configuration = new DataSourceConfiguration();
+
+        assertThatThrownBy(() -> configuration.replicaDataSource(
+            this.primary,
+            this.meterRegistry,
+            List.of("jdbc:postgresql://replica:5432/devdb"),
+            20,
+            Duration.ofSeconds(5),
+            MAX_LAG,
+            Duration.ofSeconds(10)
+        )).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ReplicaRoutingDataSource routing(List<HikariDataSource> replicas, Duration healthCheckInterval) throws SQLException {
+        when(this.primary.getConnection()).thenReturn(this.primaryConnection);
+        return new ReplicaRoutingDataSource(this.primary, replicas, this.meterRegistry, healthCheckInterval, MAX_LAG);
+    }
+
+    private DataSource dataSource() {
+        return new DataSourceConfiguration().dataSource(this.primary, this.routing);
+    }
+
+    // A replica whose health checks report the given lag, in seconds
+    private HikariDataSource replica(String poolName, Connection connection, DoubleSupplier lag) throws SQLException {
+        Statement statement = mock(Statement.class);
+        ResultSet result = mock(ResultSet.class);
+        when(result.next()).thenReturn(true);
+        when(result.getDouble(1)).thenAnswer(invocation -> lag.getAsDouble());
+        when(statement.executeQuery(anyString())).thenReturn(result);
+        when(connection.createStatement()).thenReturn(statement);
+
+        HikariDataSource replica = mock(HikariDataSource.class);
+        when(replica.getPoolName()).thenReturn(poolName);
+        when(replica.getConnection()).thenReturn(connection);
+        return replica;
+    }
+
+    // The physical connection a transaction on the routed data source ends up using
+    private Connection connectionInTransaction(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+            ((ConnectionProxy) DataSourceUtils.getConnection(dataSource)).getTargetConnection()
+        );
+    }
+
+    private Connection connection() {
+        try {
+            return this.routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double reads(String pool) {
+        return this.meterRegistry.get("datasource.reads").tag("pool", pool).counter().count();
+    }
+
+    private void awaitHealthy(String pool, boolean healthy) {
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+            assertThat(this.meterRegistry.get("datasource.replica.healthy").tag("pool", pool).gauge().value())
+                .isEqualTo(healthy ? 1.0 : 0.0)
+        );
+    }
+}
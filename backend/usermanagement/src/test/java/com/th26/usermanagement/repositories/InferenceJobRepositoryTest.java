@@ -0,0 +1,264 @@
+package com.th26.usermanagement.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.th26.usermanagement.entities.InferenceJob;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.services.BreathCodec;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class InferenceJobRepositoryTest {
+    private static final String EMAIL = "Jane.Doe@example.com";
+    private static final float[] SAMPLES = {1.5f, 2f, 1.75f};
+
+    @Autowired
+    private InferenceJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        this.user = User.builder()
+            .email(EMAIL)
+            .passwordHash("hash")
+            .build();
+    }
+
+    @Test
+    void lockAvailableReturnsOldestQueuedJobsOfPriorityWithEmail() {
+        this.entityManager.persist(this.user);
+        UUID oldest = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 0, this.now.minusSeconds(3));
+        UUID next = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 1, this.now.minusSeconds(2));
+        this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 0, this.now.minusSeconds(1));
+        this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 0, this.now.plusSeconds(60));
+        this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.RUNNING, 1, this.now.minusSeconds(5));
+        this.persist(InferenceJob.Priority.BACKGROUND, InferenceJob.Status.QUEUED, 0, this.now.minusSeconds(5));
+        this.entityManager.flush();
+        this.entityManager.clear();
+        Statistics statistics = this.statistics();
+
+        List<InferenceJobRepository.AvailableJob> jobs =
+            this.jobRepository.lockAvailable(InferenceJob.Priority.INTERACTIVE.ordinal(), this.now, 2);
+
+        assertThat(jobs).extracting(InferenceJobRepository.AvailableJob::getId).containsExactly(oldest, next);
+        assertThat(jobs.get(1).getAttempts()).isEqualTo((short) 1);
+        assertThat(jobs.get(1).getEmail()).isEqualTo(EMAIL);
+        assertThat(BreathCodec.decode(jobs.get(1).getSamples(), jobs.get(1).getSampleCount())).containsExactly(SAMPLES);
+        // The email comes with the jobs rather than from loading each job's user
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void lockAvailableSkipsJobsLockedByAnotherWorker() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        this.userRepository.save(this.user);
+        List<UUID> queued = List.of(
+            this.save(this.now.minusSeconds(3)),
+            this.save(this.now.minusSeconds(2)),
+            this.save(this.now.minusSeconds(1))
+        );
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            CompletableFuture<List<UUID>> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+                List<UUID> ids = this.lockInteractive(2);
+                locked.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ids;
+            }));
+            assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+            List<UUID> second = transactionTemplate.execute(status -> this.lockInteractive(3));
+            release.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).containsExactly(queued.get(0), queued.get(1));
+            assertThat(second).containsExactly(queued.get(2));
+        } finally {
+            release.countDown();
+            this.jobRepository.deleteAll();
+            this.userRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void markRunningStartsNextAttempt() {
+        this.entityManager.persist(this.user);
+        UUID id = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 1, this.now);
+        this.entityManager.flush();
+
+        this.jobRepository.markRunning(List.of(id), this.now.plus(Duration.ofMinutes(5)));
+
+        InferenceJob job = this.reload(id);
+        assertThat(job.getStatus()).isEqualTo(InferenceJob.Status.RUNNING);
+        assertThat(job.getAttempts()).isEqualTo((short) 2);
+        assertThat(job.getLockedUntil()).isEqualTo(this.now.plus(Duration.ofMinutes(5)));
+        assertThat(this.jobRepository.lockAvailable(InferenceJob.Priority.INTERACTIVE.ordinal(), this.now, 10)).isEmpty();
+    }
+
+    @Test
+    void markSucceededOnlyAppliesToClaimingAttempt() {
+        this.entityManager.persist(this.user);
+        UUID id = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.RUNNING, 2, this.now);
+        this.entityManager.flush();
+
+        assertThat(this.jobRepository.markSucceeded(id, (short) 1, "Healthy", this.now)).isZero();
+        assertThat(this.jobRepository.markSucceeded(id, (short) 2, "Healthy", this.now)).isOne();
+
+        InferenceJob job = this.reload(id);
+        assertThat(job.getStatus()).isEqualTo(InferenceJob.Status.SUCCEEDED);
+        assertThat(job.getDiagnosis()).isEqualTo("Healthy");
+        assertThat(job.getSamples()).isNull();
+        assertThat(job.getLockedUntil()).isNull();
+    }
+
+    @Test
+    void markFailedOnlyAppliesToClaimingAttempt() {
+        this.entityManager.persist(this.user);
+        UUID id = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.RUNNING, 2, this.now);
+        this.entityManager.flush();
+
+        assertThat(this.jobRepository.markFailed(id, (short) 1, "Rejected", this.now)).isZero();
+        assertThat(this.jobRepository.markFailed(id, (short) 2, "Rejected", this.now)).isOne();
+
+        InferenceJob job = this.reload(id);
+        assertThat(job.getStatus()).isEqualTo(InferenceJob.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Rejected");
+        assertThat(job.getSamples()).isNull();
+    }
+
+    @Test
+    void requeueOnlyAppliesToClaimingAttempt() {
+        this.entityManager.persist(this.user);
+        UUID id = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.RUNNING, 2, this.now);
+        this.entityManager.flush();
+        Instant retryAt = this.now.plusSeconds(30);
+
+        assertThat(this.jobRepository.requeue(id, (short) 1, "Unavailable", retryAt)).isZero();
+        assertThat(this.jobRepository.requeue(id, (short) 2, "Unavailable", retryAt)).isOne();
+
+        InferenceJob job = this.reload(id);
+        assertThat(job.getStatus()).isEqualTo(InferenceJob.Status.QUEUED);
+        assertThat(job.getAvailableAt()).isEqualTo(retryAt);
+        assertThat(job.getSamples()).isNotNull();
+        assertThat(this.jobRepository.lockAvailable(InferenceJob.Priority.INTERACTIVE.ordinal(), this.now, 10)).isEmpty();
+        assertThat(this.jobRepository.lockAvailable(InferenceJob.Priority.INTERACTIVE.ordinal(), retryAt, 10)).hasSize(1);
+    }
+
+    @Test
+    void requeueExpiredOnlyRequeuesJobsPastTheirLease() {
+        this.entityManager.persist(this.user);
+        UUID expired = this.persistRunning(this.now.minusSeconds(1));
+        UUID leased = this.persistRunning(this.now.plusSeconds(60));
+        this.entityManager.flush();
+
+        assertThat(this.jobRepository.requeueExpired(this.now)).isOne();
+
+        assertThat(this.reload(expired).getStatus()).isEqualTo(InferenceJob.Status.QUEUED);
+        assertThat(this.reload(expired).getLockedUntil()).isNull();
+        assertThat(this.reload(leased).getStatus()).isEqualTo(InferenceJob.Status.RUNNING);
+    }
+
+    @Test
+    void markAbandonedFailsQueuedJob() {
+        this.entityManager.persist(this.user);
+        UUID id = this.persist(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 3, this.now);
+        this.entityManager.flush();
+
+        assertThat(this.jobRepository.markAbandoned(id, "Gave up after 3 attempts", this.now)).isOne();
+
+        InferenceJob job = this.reload(id);
+        assertThat(job.getStatus()).isEqualTo(InferenceJob.Status.FAILED);
+        assertThat(job.getError()).isEqualTo("Gave up after 3 attempts");
+        assertThat(job.getSamples()).isNull();
+    }
+
+    private UUID persist(InferenceJob.Priority priority, InferenceJob.Status status, int attempts, Instant availableAt) {
+        return this.entityManager.persist(this.job(priority, status, attempts, availableAt)).getId();
+    }
+
+    private UUID persistRunning(Instant lockedUntil) {
+        InferenceJob job = this.job(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.RUNNING, 1, this.now);
+        job.setLockedUntil(lockedUntil);
+        return this.entityManager.persist(job).getId();
+    }
+
+    private UUID save(Instant availableAt) {
+        return this.jobRepository.save(
+            this.job(InferenceJob.Priority.INTERACTIVE, InferenceJob.Status.QUEUED, 0, availableAt)
+        ).getId();
+    }
+
+    private InferenceJob job(InferenceJob.Priority priority, InferenceJob.Status status, int attempts, Instant availableAt) {
+        return InferenceJob.builder()
+            .user(this.user)
+            .priority(priority)
+            .status(status)
+            .attempts((short) attempts)
+            .sampleCount(SAMPLES.length)
+            .encoding(BreathCodec.XOR_FLOAT32)
+            .samples(BreathCodec.encode(SAMPLES))
+            .createdAt(this.now)
+            .availableAt(availableAt)
+            .build();
+    }
+
+    private List<UUID> lockInteractive(int limit) {
+        return this.jobRepository.lockAvailable(InferenceJob.Priority.INTERACTIVE.ordinal(), this.now, limit).stream()
+            .map(InferenceJobRepository.AvailableJob::getId)
+            .toList();
+    }
+
+    private InferenceJob reload(UUID id) {
+        this.entityManager.clear();
+        return this.entityManager.find(InferenceJob.class, id);
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = this.entityManager.getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
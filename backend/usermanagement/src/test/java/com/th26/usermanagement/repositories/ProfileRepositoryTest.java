@@ -0,0 +1,74 @@
+package com.th26.usermanagement.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.entities.Profile;
+import com.th26.usermanagement.entities.User;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProfileRepositoryTest {
+    @Autowired
+    private ProfileRepository profileRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        User user = User.builder()
+            .email("Jane.Doe@example.com")
+            .passwordHash("hash")
+            .build();
+        user.setProfile(Profile.builder()
+            .firstName("Jane")
+            .lastName("Doe")
+            .age((short) 35)
+            .sex("female")
+            .height(new BigDecimal("65.00"))
+            .weight(new BigDecimal("140.00"))
+            .build());
+        this.entityManager.persist(user);
+        this.entityManager.flush();
+        this.entityManager.clear();
+
+        this.statistics = this.entityManager.getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        this.statistics.clear();
+    }
+
+    @Test
+    void findProfileResponseByEmailKeyRunsOneStatement() {
+        Optional<ProfileResponse> profile = this.profileRepository.findProfileResponseByEmailKey(User.emailKey("jane.doe@EXAMPLE.com"));
+
+        assertThat(profile).hasValueSatisfying(response -> {
+            assertThat(response.getFirstName()).isEqualTo("Jane");
+            assertThat(response.getWeight()).isEqualByComparingTo("140.00");
+        });
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+        // Projected straight into the response, so no entity is loaded
+        assertThat(this.statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void findProfileResponseByEmailKeyRunsOneStatementWhenMissing() {
+        assertThat(this.profileRepository.findProfileResponseByEmailKey(User.emailKey("nobody@example.com"))).isEmpty();
+        assertThat(this.statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+}
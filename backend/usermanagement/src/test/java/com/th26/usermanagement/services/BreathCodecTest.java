@@ -0,0 +1,89 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BreathCodecTest {
+    @Test
+    void roundTripsSpirometerSamples() {
+        // 10-bit ADC readings, as the spirometer produces them
+        Random random = new Random(42);
+        float[] samples = new float[2048];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = 1f + Math.round(512 + 400 * Math.sin(i / 40.0) + random.nextInt(5)) / 1024f;
+        }
+
+        byte[] encoded = BreathCodec.encode(samples);
+
+        assertThat(BreathCodec.decode(encoded, samples.length)).containsExactly(samples);
+        assertThat(encoded.length).isLessThan(samples.length * Float.BYTES);
+    }
+
+    @Test
+    void encodesRepeatedSamplesInOneBitEach() {
+        float[] samples = new float[801];
+        Arrays.fill(samples, 1.25f);
+
+        byte[] encoded = BreathCodec.encode(samples);
+
+        assertThat(encoded).hasSize(Integer.BYTES + 800 / Byte.SIZE);
+        assertThat(BreathCodec.decode(encoded, samples.length)).containsExactly(samples);
+    }
+
+    @Test
+    void roundTripsSpecialValuesBitForBit() {
+        float[] samples = {0f, -0f, Float.MIN_VALUE, Float.MAX_VALUE, Float.POSITIVE_INFINITY, Float.NaN, -1f, 1f};
+
+        float[] decoded = BreathCodec.decode(BreathCodec.encode(samples), samples.length);
+
+        for (int i = 0; i < samples.length; i++) {
+            assertThat(Float.floatToRawIntBits(decoded[i])).isEqualTo(Float.floatToRawIntBits(samples[i]));
+        }
+    }
+
+    @Test
+    void encodesEmptyRecording() {
+        byte[] encoded = BreathCodec.encode(new float[0]);
+
+        assertThat(encoded).isEmpty();
+        assertThat(BreathCodec.decode(encoded, 0)).isEmpty();
+        assertThat(BreathCodec.decodeDownsampled(encoded, 0, 100)).isEmpty();
+    }
+
+    @Test
+    void roundTripsSingleSample() {
+        byte[] encoded = BreathCodec.encode(new float[] {3.5f});
+
+        assertThat(encoded).hasSize(Integer.BYTES);
+        assertThat(BreathCodec.decode(encoded, 1)).containsExactly(3.5f);
+    }
+
+    @Test
+    void downsamplingKeepsPeaksInOrder() {
+        float[] samples = new float[1000];
+        Arrays.fill(samples, 1f);
+        samples[10] = 9f;
+        samples[20] = 0.5f;
+        samples[990] = 0.25f;
+
+        float[] points = BreathCodec.decodeDownsampled(BreathCodec.encode(samples), samples.length, 10);
+
+        assertThat(points).hasSize(10);
+        // The first bucket peaks before it dips, so the maximum comes first
+        assertThat(points[0]).isEqualTo(9f);
+        assertThat(points[1]).isEqualTo(0.5f);
+        assertThat(points[8]).isEqualTo(1f);
+        assertThat(points[9]).isEqualTo(0.25f);
+    }
+
+    @Test
+    void downsamplingReturnsEverySampleWhenTheyFit() {
+        float[] samples = {1f, 2f, 3f};
+
+        assertThat(BreathCodec.decodeDownsampled(BreathCodec.encode(samples), samples.length, 3)).containsExactly(samples);
+    }
+}
@@ -0,0 +1,115 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.exceptions.InvalidBreathDataException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BreathPreprocessorTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void returnsSamplesUntouchedWhenDisabled() {
+        float[] samples = {1f, 1f, 9f, 1f};
+
+        assertThat(this.preprocessor(false, 0f, 5f, 1, false).process(samples)).isSameAs(samples);
+        assertThat(this.compressionRatio().count()).isZero();
+    }
+
+    @Test
+    void trimsFlatRunsDownToSampleNextToBreath() {
+        float[] samples = {0.5f, 0.5f, 0.5f, 1f, 2f, 1.5f, 0.5f, 0.5f};
+
+        assertThat(this.preprocessor(true, 0f, 5f, 1, false).process(samples))
+            .containsExactly(0.5f, 1f, 2f, 1.5f, 0.5f);
+    }
+
+    @Test
+    void trimsRunsWithinTolerance() {
+        float[] samples = {0.5f, 0.52f, 0.49f, 1f, 2f, 0.6f, 0.61f, 0.6f};
+
+        assertThat(this.preprocessor(true, 0.05f, 5f, 1, false).process(samples))
+            .containsExactly(0.49f, 1f, 2f, 0.6f);
+    }
+
+    @Test
+    void keepsRecordingWithoutFlatEnds() {
+        float[] samples = {0.5f, 1f, 2f, 1.5f};
+
+        assertThat(this.preprocessor(true, 0f, 5f, 1, false).process(samples)).containsExactly(samples);
+    }
+
+    @Test
+    void rejectsRecordingThatNeverLeavesItsRestingLevel() {
+        float[] samples = {0.5f, 0.5f, 0.51f, 0.5f};
+
+        assertThatThrownBy(() -> this.preprocessor(true, 0.05f, 5f, 1, false).process(samples))
+            .isInstanceOf(InvalidBreathDataException.class);
+    }
+
+    @Test
+    void clipsSamplesToMax() {
+        float[] samples = {1f, 7f, 3f, 9f};
+
+        assertThat(this.preprocessor(true, 0f, 5f, 1, false).process(samples)).containsExactly(1f, 5f, 3f, 5f);
+    }
+
+    @Test
+    void averagesEachWindowIncludingShortLastOne() {
+        float[] samples = {1f, 3f, 2f, 4f, 6f};
+
+        assertThat(this.preprocessor(true, 0f, 10f, 2, false).process(samples)).containsExactly(2f, 3f, 6f);
+    }
+
+    @Test
+    void clipsBeforeAveraging() {
+        float[] samples = {1f, 9f};
+
+        assertThat(this.preprocessor(true, 0f, 5f, 2, false).process(samples)).containsExactly(3f);
+    }
+
+    @Test
+    void scalesPeakToOne() {
+        float[] samples = {1f, 4f, 2f};
+
+        assertThat(this.preprocessor(true, 0f, 5f, 1, true).process(samples))
+            .containsExactly(new float[] {0.25f, 1f, 0.5f}, within(1e-6f));
+    }
+
+    @Test
+    void leavesCallersSamplesUnchanged() {
+        float[] samples = {1f, 1f, 9f, 4f, 1f, 1f};
+        float[] copy = samples.clone();
+
+        this.preprocessor(true, 0f, 5f, 2, true).process(samples);
+
+        assertThat(samples).containsExactly(copy);
+    }
+
+    @Test
+    void recordsCompressionRatio() {
+        BreathPreprocessor preprocessor = this.preprocessor(true, 0f, 10f, 2, false);
+
+        // Trimmed to 6 samples, then averaged down to 3
+        preprocessor.process(new float[] {1f, 1f, 1f, 2f, 3f, 4f, 5f, 1f});
+        preprocessor.process(new float[] {1f, 2f, 3f, 4f});
+
+        DistributionSummary ratio = this.compressionRatio();
+        assertThat(ratio.count()).isEqualTo(2);
+        assertThat(ratio.totalAmount()).isCloseTo(8.0 / 3 + 4.0 / 2, within(1e-9));
+    }
+
+    private BreathPreprocessor preprocessor(boolean enabled, float trimTolerance, float clipMax, int downsampleFactor, boolean normalize) {
+        return new BreathPreprocessor(this.meterRegistry, enabled, trimTolerance, clipMax, downsampleFactor, normalize);
+    }
+
+    private DistributionSummary compressionRatio() {
+        return this.meterRegistry.get("model.preprocessing.compression.ratio").summary();
+    }
+}
@@ -0,0 +1,85 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BreathRingBufferTest {
+    @Test
+    void keepsSamplesInOrderBeforeFilling() {
+        BreathRingBuffer buffer = new BreathRingBuffer(5);
+
+        buffer.add(new float[] {1, 2});
+        buffer.add(new float[] {3});
+
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.total()).isEqualTo(3);
+        assertThat(buffer.latest(3)).containsExactly(1, 2, 3);
+        assertThat(buffer.latest(2)).containsExactly(2, 3);
+    }
+
+    @Test
+    void overwritesOldestSamplesWhenAddingAcrossTheEnd() {
+        BreathRingBuffer buffer = new BreathRingBuffer(5);
+
+        buffer.add(new float[] {1, 2, 3, 4});
+        buffer.add(new float[] {5, 6, 7});
+
+        assertThat(buffer.size()).isEqualTo(5);
+        assertThat(buffer.total()).isEqualTo(7);
+        assertThat(buffer.latest(5)).containsExactly(3, 4, 5, 6, 7);
+        // Starts before the wrap and ends after it
+        assertThat(buffer.latest(4)).containsExactly(4, 5, 6, 7);
+        // Lies entirely after the wrap
+        assertThat(buffer.latest(2)).containsExactly(6, 7);
+    }
+
+    @Test
+    void wrapsRepeatedlyOneSampleAtATime() {
+        BreathRingBuffer buffer = new BreathRingBuffer(3);
+
+        for (int i = 1; i <= 11; i++) {
+            buffer.add(new float[] {i});
+            int size = Math.min(i, 3);
+            float[] expected = new float[size];
+            for (int j = 0; j < size; j++) {
+                expected[j] = i - size + 1 + j;
+            }
+            assertThat(buffer.latest(size)).containsExactly(expected);
+        }
+        assertThat(buffer.total()).isEqualTo(11);
+    }
+
+    @Test
+    void keepsTheTailOfAnAddLargerThanCapacity() {
+        BreathRingBuffer buffer = new BreathRingBuffer(3);
+
+        buffer.add(new float[] {1, 2});
+        buffer.add(new float[] {3, 4, 5, 6, 7});
+        buffer.add(new float[] {8});
+
+        assertThat(buffer.total()).isEqualTo(8);
+        assertThat(buffer.latest(3)).containsExactly(6, 7, 8);
+    }
+
+    @Test
+    void addsExactlyCapacity() {
+        BreathRingBuffer buffer = new BreathRingBuffer(3);
+
+        buffer.add(new float[] {1});
+        buffer.add(new float[] {2, 3, 4});
+
+        assertThat(buffer.latest(3)).containsExactly(2, 3, 4);
+        buffer.add(new float[] {5});
+        assertThat(buffer.latest(3)).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void rejectsWindowLargerThanBuffered() {
+        BreathRingBuffer buffer = new BreathRingBuffer(5);
+        buffer.add(new float[] {1, 2});
+
+        assertThatThrownBy(() -> buffer.latest(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,212 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.exceptions.ModelRejectedException;
+import com.th26.usermanagement.repositories.InferenceJobRepository;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InferenceJobWorkerTest {
+    private static final String EMAIL = "Jane.Doe@example.com";
+    private static final float[] SAMPLES = {1.5f, 2f, 1.75f};
+    private static final int MAX_ATTEMPTS = 3;
+    private static final int INTERACTIVE = 0;
+    private static final int BACKGROUND = 1;
+
+    private final InferenceJobRepository jobRepository = mock(InferenceJobRepository.class);
+    private final ProfileService profileService = mock(ProfileService.class);
+    private final ModelService modelService = mock(ModelService.class);
+    private final InferenceJobWatchers watchers = mock(InferenceJobWatchers.class);
+
+    private InferenceJobWorker worker;
+
+    private record Job(UUID getId, Short getAttempts, Integer getSampleCount, byte[] getSamples, String getEmail)
+        implements InferenceJobRepository.AvailableJob {}
+
+    @BeforeEach
+    void setUp() {
+        when(this.profileService.getProfileByEmail(EMAIL)).thenReturn(ProfileResponse.builder()
+            .sex("Female")
+            .height(new BigDecimal("65.00"))
+            .weight(new BigDecimal("140.00"))
+            .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (this.worker != null) {
+            this.worker.destroy();
+        }
+    }
+
+    @Test
+    void sharesFreeSlotsByWeight() {
+        when(this.jobRepository.lockAvailable(anyInt(), any(Instant.class), anyInt()))
+            .thenAnswer(invocation -> jobs(invocation.getArgument(2)));
+        this.modelNeverAnswers();
+
+        this.startWorker();
+
+        verify(this.jobRepository, timeout(1000)).lockAvailable(eq(INTERACTIVE), any(Instant.class), eq(3));
+        verify(this.jobRepository, timeout(1000)).lockAvailable(eq(BACKGROUND), any(Instant.class), eq(1));
+        // Both shares were filled, so there is no second pass
+        verify(this.jobRepository, after(200).times(2)).lockAvailable(anyInt(), any(Instant.class), anyInt());
+    }
+
+    @Test
+    void givesUnusedShareToOtherPriority() {
+        when(this.jobRepository.lockAvailable(eq(BACKGROUND), any(Instant.class), anyInt()))
+            .thenAnswer(invocation -> jobs(invocation.getArgument(2)));
+        this.modelNeverAnswers();
+
+        this.startWorker();
+
+        verify(this.jobRepository, timeout(1000)).lockAvailable(eq(INTERACTIVE), any(Instant.class), eq(3));
+        verify(this.jobRepository, timeout(1000)).lockAvailable(eq(BACKGROUND), any(Instant.class), eq(1));
+        verify(this.jobRepository, timeout(1000)).lockAvailable(eq(BACKGROUND), any(Instant.class), eq(3));
+    }
+
+    @Test
+    void marksSucceededJobAndReportsIt() {
+        InferenceJobRepository.AvailableJob job = job(0);
+        this.offer(job);
+        when(this.modelService.runInferenceAsync(any(ProfileResponse.class), any(float[].class)))
+            .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok("Healthy".getBytes(StandardCharsets.UTF_8))));
+        when(this.jobRepository.markSucceeded(eq(job.getId()), eq((short) 1), eq("Healthy"), any(Instant.class)))
+            .thenReturn(1);
+
+        this.startWorker();
+
+        verify(this.jobRepository, timeout(1000)).markRunning(eq(List.of(job.getId())), any(Instant.class));
+        verify(this.watchers, timeout(1000)).finished(job.getId());
+    }
+
+    @Test
+    void doesNotReportJobWhoseAttemptWasSuperseded() {
+        InferenceJobRepository.AvailableJob job = job(0);
+        this.offer(job);
+        when(this.modelService.runInferenceAsync(any(ProfileResponse.class), any(float[].class)))
+            .thenReturn(CompletableFuture.completedFuture(ResponseEntity.ok("Healthy".getBytes(StandardCharsets.UTF_8))));
+
+        this.startWorker();
+
+        verify(this.jobRepository, timeout(1000)).markSucceeded(eq(job.getId()), eq((short) 1), eq("Healthy"), any(Instant.class));
+        verify(this.watchers, after(200).never()).finished(any());
+    }
+
+    @Test
+    void failsRejectedJobWithoutRetrying() {
+        InferenceJobRepository.AvailableJob job = job(0);
+        this.offer(job);
+        when(this.modelService.runInferenceAsync(any(ProfileResponse.class), any(float[].class)))
+            .thenReturn(CompletableFuture.failedFuture(new ModelRejectedException("Model service rejected the request")));
+        when(this.jobRepository.markFailed(eq(job.getId()), eq((short) 1), any(), any(Instant.class))).thenReturn(1);
+
+        this.startWorker();
+
+        verify(this.watchers, timeout(1000)).finished(job.getId());
+        verify(this.jobRepository, never()).requeue(any(), anyShort(), any(), any());
+    }
+
+    @Test
+    void requeuesJobAfterModelFailure() {
+        InferenceJobRepository.AvailableJob job = job(0);
+        this.offer(job);
+        when(this.modelService.runInferenceAsync(any(ProfileResponse.class), any(float[].class)))
+            .thenReturn(CompletableFuture.failedFuture(new GatewayException("Error communicating with model service")));
+
+        this.startWorker();
+
+        verify(this.jobRepository, timeout(1000))
+            .requeue(eq(job.getId()), eq((short) 1), eq("Error communicating with model service"), any(Instant.class));
+        verify(this.jobRepository, never()).markFailed(any(), anyShort(), any(), any());
+        verify(this.watchers, never()).finished(any());
+    }
+
+    @Test
+    void givesUpJobThatUsedAllAttemptsAndReportsIt() {
+        InferenceJobRepository.AvailableJob job = job(MAX_ATTEMPTS);
+        this.offer(job);
+
+        this.startWorker();
+
+        verify(this.watchers, timeout(1000)).finished(job.getId());
+        verify(this.jobRepository).markAbandoned(eq(job.getId()), eq("Gave up after 3 attempts"), any(Instant.class));
+        verify(this.jobRepository, never()).markRunning(anyCollection(), any());
+        verify(this.modelService, never()).runInferenceAsync(any(ProfileResponse.class), any(float[].class));
+    }
+
+    // Stubs must be in place before the worker starts, since it polls straight away
+    private void startWorker() {
+        this.worker = new InferenceJobWorker(
+            this.jobRepository,
+            this.profileService,
+            this.modelService,
+            this.watchers,
+            mock(PlatformTransactionManager.class),
+            new SimpleMeterRegistry(),
+            true,
+            4,
+            3,
+            1,
+            Duration.ofHours(1),
+            Duration.ofMinutes(1),
+            MAX_ATTEMPTS,
+            Duration.ofSeconds(10),
+            Duration.ofDays(7),
+            Duration.ofHours(1)
+        );
+    }
+
+    private void offer(InferenceJobRepository.AvailableJob job) {
+        when(this.jobRepository.lockAvailable(eq(INTERACTIVE), any(Instant.class), anyInt()))
+            .thenReturn(List.of(job))
+            .thenReturn(List.of());
+    }
+
+    private void modelNeverAnswers() {
+        when(this.modelService.runInferenceAsync(any(ProfileResponse.class), any(float[].class))).thenReturn(new CompletableFuture<>());
+    }
+
+    private static List<InferenceJobRepository.AvailableJob> jobs(int count) {
+        List<InferenceJobRepository.AvailableJob> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            jobs.add(job(0));
+        }
+        return jobs;
+    }
+
+    private static InferenceJobRepository.AvailableJob job(int attempts) {
+        return new Job(UUID.randomUUID(), (short) attempts, SAMPLES.length, BreathCodec.encode(SAMPLES), EMAIL);
+    }
+}
@@ -0,0 +1,170 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.handlers.GlobalExceptionHandler;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelBatchDispatcherTest {
+    // The stub answers each input with its sex, or null for inputs marked for rejection
+    private static final Pattern SEX = Pattern.compile("\"sex\"\\s*:\\s*\"([^\"]*)\"");
+    private static final String REJECT = "reject";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    private HttpServer server;
+    private ModelBatchDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        this.server.createContext("/predict/batch", this::handle);
+        this.server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (this.dispatcher != null) {
+            this.dispatcher.destroy();
+        }
+        this.server.stop(0);
+    }
+
+    @Test
+    void sendsBatchOnceFull() {
+        this.dispatcher = this.dispatcher(3, Duration.ofSeconds(30));
+
+        List<CompletableFuture<ResponseEntity<byte[]>>> results = List.of(
+            this.dispatcher.submit(request("a")),
+            this.dispatcher.submit(request("b")),
+            this.dispatcher.submit(request("c"))
+        );
+
+        // Well inside the window, so only reaching the maximum size can have sent it
+        assertThat(CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)))
+            .succeedsWithin(Duration.ofSeconds(5));
+        assertThat(this.batchSizes).containsExactly(3);
+    }
+
+    @Test
+    void sendsPartialBatchOnceWindowCloses() {
+        Duration window = Duration.ofMillis(200);
+        this.dispatcher = this.dispatcher(10, window);
+
+        long start = System.nanoTime();
+        CompletableFuture<ResponseEntity<byte[]>> first = this.dispatcher.submit(request("a"));
+        CompletableFuture<ResponseEntity<byte[]>> second = this.dispatcher.submit(request("b"));
+
+        assertThat(CompletableFuture.allOf(first, second)).succeedsWithin(Duration.ofSeconds(5));
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(window);
+        assertThat(this.batchSizes).containsExactly(2);
+    }
+
+    @Test
+    void returnsEachResultToItsCaller() {
+        this.dispatcher = this.dispatcher(3, Duration.ofSeconds(30));
+
+        CompletableFuture<ResponseEntity<byte[]>> a = this.dispatcher.submit(request("a"));
+        CompletableFuture<ResponseEntity<byte[]>> b = this.dispatcher.submit(request("b"));
+        CompletableFuture<ResponseEntity<byte[]>> c = this.dispatcher.submit(request("c"));
+
+        assertThat(body(a)).isEqualTo("a");
+        assertThat(body(b)).isEqualTo("b");
+        assertThat(body(c)).isEqualTo("c");
+    }
+
+    @Test
+    void nullResultFailsOnlyItsCaller() {
+        this.dispatcher = this.dispatcher(3, Duration.ofSeconds(30));
+
+        CompletableFuture<ResponseEntity<byte[]>> a = this.dispatcher.submit(request("a"));
+        CompletableFuture<ResponseEntity<byte[]>> rejected = this.dispatcher.submit(request(REJECT));
+        CompletableFuture<ResponseEntity<byte[]>> c = this.dispatcher.submit(request("c"));
+
+        assertThat(body(a)).isEqualTo("a");
+        assertThat(body(c)).isEqualTo("c");
+        assertThat(rejected).failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GatewayException.class);
+        GatewayException cause = (GatewayException) rejected.handle((response, ex) -> ex).join();
+        int status = new GlobalExceptionHandler().handleGatewayException(cause).getStatusCode().value();
+        assertThat(status).isEqualTo(HttpStatus.BAD_GATEWAY.value());
+    }
+
+    private ModelBatchDispatcher dispatcher(int maxBatchSize, Duration window) {
+        RestClient modelClient = RestClient.builder()
+            .baseUrl("http://localhost:" + this.server.getAddress().getPort())
+            .build();
+        return new ModelBatchDispatcher(
+            modelClient,
+            new ModelCircuitBreaker(this.meterRegistry, 5, Duration.ofSeconds(10), Duration.ofSeconds(45)),
+            new ModelGatewayMetrics(this.meterRegistry),
+            this.meterRegistry,
+            true,
+            maxBatchSize,
+            window
+        );
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Matcher matcher = SEX.matcher(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            StringBuilder results = new StringBuilder("[");
+            int inputs = 0;
+            while (matcher.find()) {
+                String sex = matcher.group(1);
+                results.append(inputs++ == 0 ? "" : ",").append(REJECT.equals(sex) ? "null" : '"' + sex + '"');
+            }
+            this.batchSizes.add(inputs);
+
+            byte[] bytes = results.append(']').toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static ModelRerouteRequest request(String sex) {
+        return ModelRerouteRequest.builder()
+            .height(new BigDecimal("65.00"))
+            .weight(new BigDecimal("140.00"))
+            .sex(sex)
+            .breathData(new float[] {1.5f, 2f})
+            .build();
+    }
+
+    private static String body(CompletableFuture<ResponseEntity<byte[]>> result) {
+        assertThat(result).succeedsWithin(Duration.ofSeconds(5));
+        return new String(result.join().getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,127 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponse;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.exceptions.ModelUnavailableException;
+import com.th26.usermanagement.handlers.GlobalExceptionHandler;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class ModelCircuitBreakerTest {
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+    private static final Duration PROBE_TIMEOUT = Duration.ofMillis(200);
+
+    private final ModelCircuitBreaker breaker =
+        new ModelCircuitBreaker(new SimpleMeterRegistry(), 3, OPEN_DURATION, PROBE_TIMEOUT);
+
+    @Test
+    void opensOnceConsecutiveFailuresReachThreshold() {
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        this.breaker.recordSuccess();
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.CLOSED);
+
+        this.breaker.recordFailure();
+
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.OPEN);
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+    }
+
+    @Test
+    void rejectsWhileOpenWithRetryAfter() {
+        Duration openDuration = Duration.ofSeconds(30);
+        ModelCircuitBreaker breaker = new ModelCircuitBreaker(new SimpleMeterRegistry(), 1, openDuration, PROBE_TIMEOUT);
+        breaker.recordFailure();
+
+        ModelUnavailableException ex = catchThrowableOfType(ModelUnavailableException.class, breaker::acquirePermission);
+
+        assertThat(ex.getRetryAfter())
+            .isGreaterThan(openDuration.minusSeconds(1))
+            .isLessThanOrEqualTo(openDuration.plusSeconds(1));
+        ErrorResponse response = new GlobalExceptionHandler().handleModelUnavailableException(ex);
+        assertThat(response.getStatusCode().value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(Long.parseLong(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)))
+            .isBetween(30L, 31L);
+    }
+
+    @Test
+    void admitsSingleProbeOnceOpenDurationHasPassed() throws InterruptedException {
+        this.open();
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+
+        this.breaker.acquirePermission();
+
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+    }
+
+    @Test
+    void closesWhenProbeSucceeds() throws InterruptedException {
+        this.open();
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        this.breaker.acquirePermission();
+
+        this.breaker.recordSuccess();
+
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.CLOSED);
+        this.breaker.acquirePermission();
+        this.breaker.acquirePermission();
+    }
+
+    @Test
+    void reopensWhenProbeFails() throws InterruptedException {
+        this.open();
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        this.breaker.acquirePermission();
+
+        this.breaker.recordFailure();
+
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.OPEN);
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+    }
+
+    @Test
+    void releasedProbeLetsNextCallerProbe() throws InterruptedException {
+        this.open();
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        this.breaker.acquirePermission();
+
+        this.breaker.releasePermission();
+
+        this.breaker.acquirePermission();
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+    }
+
+    @Test
+    void lostProbeIsReplacedAfterProbeTimeout() throws InterruptedException {
+        this.open();
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        this.breaker.acquirePermission();
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+
+        Thread.sleep(PROBE_TIMEOUT.toMillis() + 50);
+
+        this.breaker.acquirePermission();
+        assertThatThrownBy(this.breaker::acquirePermission).isInstanceOf(ModelUnavailableException.class);
+    }
+
+    private void open() {
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        this.breaker.recordFailure();
+        assertThat(this.breaker.getState()).isEqualTo(ModelCircuitBreaker.State.OPEN);
+    }
+}
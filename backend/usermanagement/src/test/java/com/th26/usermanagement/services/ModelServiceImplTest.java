@@ -0,0 +1,195 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.config.CacheConfiguration;
+import com.th26.usermanagement.dtos.requests.ModelRerouteRequest;
+import com.th26.usermanagement.dtos.responses.ProfileResponse;
+import com.th26.usermanagement.exceptions.GatewayException;
+import com.th26.usermanagement.exceptions.ModelRejectedException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModelServiceImplTest {
+    private static final String EMAIL = "Jane.Doe@example.com";
+    private static final Duration HEDGE_DELAY = Duration.ofMillis(500);
+    private static final ResponseEntity<byte[]> HEALTHY = ResponseEntity.ok("Healthy".getBytes(StandardCharsets.UTF_8));
+
+    private final ProfileService profileService = mock(ProfileService.class);
+    private final ModelTransport modelTransport = mock(ModelTransport.class);
+    private final ModelBatchDispatcher batchDispatcher = mock(ModelBatchDispatcher.class);
+    private final RecordingWriter recordingWriter = mock(RecordingWriter.class);
+    private final ProfileResponse profile = ProfileResponse.builder()
+        .sex("Female")
+        .height(new BigDecimal("65.00"))
+        .weight(new BigDecimal("140.00"))
+        .build();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ModelCircuitBreaker hedgeBreaker =
+        new ModelCircuitBreaker(this.meterRegistry, 2, Duration.ofSeconds(10), Duration.ofSeconds(45));
+
+    private ModelServiceImpl modelService;
+
+    @BeforeEach
+    void setUp() {
+        when(this.profileService.getProfileByEmail(EMAIL)).thenReturn(this.profile);
+        when(this.modelTransport.predict(any(ModelRerouteRequest.class)))
+            .thenReturn(HEALTHY);
+
+        this.modelService = this.modelService(
+            new TaskExecutorAdapter(Runnable::run),
+            new ModelCircuitBreaker(this.meterRegistry, 5, Duration.ofSeconds(10), Duration.ofSeconds(45)),
+            false
+        );
+    }
+
+    private ModelServiceImpl modelService(AsyncTaskExecutor executor, ModelCircuitBreaker circuitBreaker, boolean hedgeEnabled) {
+        return new ModelServiceImpl(
+            this.profileService,
+            this.modelTransport,
+            executor,
+            this.batchDispatcher,
+            new InferenceCache(new ConcurrentMapCacheManager(CacheConfiguration.INFERENCES)),
+            circuitBreaker,
+            new ModelGatewayMetrics(this.meterRegistry),
+            new ModelPayloadLogger(0, 0),
+            this.recordingWriter,
+            new BreathPreprocessor(this.meterRegistry, false, 0f, 5f, 1, false),
+            this.meterRegistry,
+            hedgeEnabled,
+            HEDGE_DELAY
+        );
+    }
+
+    @Test
+    void storesRecordingOfEachDistinctUpload() {
+        float[] first = {1.5f, 2f, 1.75f};
+        float[] second = {1.5f, 2f, 1.5f};
+
+        this.modelService.runInference(EMAIL, first);
+        this.modelService.runInferenceAsync(EMAIL, second).join();
+
+        verify(this.recordingWriter).submit(EMAIL, first);
+        verify(this.recordingWriter).submit(EMAIL, second);
+        verify(this.modelTransport, times(2)).predict(any(ModelRerouteRequest.class));
+    }
+
+    @Test
+    void doesNotStoreRetryAnsweredFromCache() {
+        float[] breathData = {1.5f, 2f, 1.75f};
+
+        this.modelService.runInference(EMAIL, breathData);
+        this.modelService.runInference(EMAIL, breathData.clone());
+        this.modelService.runInferenceAsync(EMAIL, breathData.clone()).join();
+
+        verify(this.modelTransport, times(1)).predict(any(ModelRerouteRequest.class));
+        verify(this.recordingWriter, times(1)).submit(eq(EMAIL), any(float[].class));
+    }
+
+    @Test
+    void doesNotStoreRecordingWithoutUser() {
+        this.modelService.runInferenceAsync(this.profile, new float[] {1.5f, 2f}).join();
+
+        verify(this.modelTransport).predict(any(ModelRerouteRequest.class));
+        verify(this.recordingWriter, never()).submit(any(), any());
+    }
+
+    @Test
+    void hedgeAnswersWhenFirstCallIsSlow() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.modelTransport.predict(any(ModelRerouteRequest.class)))
+            .thenAnswer(invocation -> {
+                release.await();
+                return HEALTHY;
+            })
+            .thenReturn(HEALTHY);
+        ModelServiceImpl hedged = this.modelService(new SimpleAsyncTaskExecutor(), this.hedgeBreaker, true);
+
+        try {
+            CompletableFuture<ResponseEntity<byte[]>> result = hedged.runInferenceAsync(this.profile, new float[] {1.5f, 2f});
+
+            assertThat(result).succeedsWithin(Duration.ofSeconds(5)).isSameAs(HEALTHY);
+            verify(this.modelTransport, times(2)).predict(any(ModelRerouteRequest.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void hedgeDoesNotRepeatRejectedRequest() throws InterruptedException {
+        when(this.modelTransport.predict(any(ModelRerouteRequest.class)))
+            .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        ModelServiceImpl hedged = this.modelService(new SimpleAsyncTaskExecutor(), this.hedgeBreaker, true);
+
+        CompletableFuture<ResponseEntity<byte[]>> result = hedged.runInferenceAsync(this.profile, new float[] {1.5f, 2f});
+
+        assertThat(result).failsWithin(HEDGE_DELAY.dividedBy(2))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(ModelRejectedException.class);
+        Thread.sleep(HEDGE_DELAY.multipliedBy(2).toMillis());
+        verify(this.modelTransport, times(1)).predict(any(ModelRerouteRequest.class));
+        assertThat(this.hedgeBreaker.getState()).isEqualTo(ModelCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void hedgeFailsAsSoonAsFirstCallFails() throws InterruptedException {
+        when(this.modelTransport.predict(any(ModelRerouteRequest.class)))
+            .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+        ModelServiceImpl hedged = this.modelService(new SimpleAsyncTaskExecutor(), this.hedgeBreaker, true);
+
+        CompletableFuture<ResponseEntity<byte[]>> result = hedged.runInferenceAsync(this.profile, new float[] {1.5f, 2f});
+
+        assertThat(result).failsWithin(HEDGE_DELAY.dividedBy(2))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GatewayException.class);
+        Thread.sleep(HEDGE_DELAY.multipliedBy(2).toMillis());
+        verify(this.modelTransport, times(1)).predict(any(ModelRerouteRequest.class));
+    }
+
+    @Test
+    void hedgedCallsRecordOneBreakerOutcome() {
+        when(this.modelTransport.predict(any(ModelRerouteRequest.class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(HEDGE_DELAY.multipliedBy(2).toMillis());
+                throw new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+            })
+            .thenThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR));
+        ModelServiceImpl hedged = this.modelService(new SimpleAsyncTaskExecutor(), this.hedgeBreaker, true);
+
+        CompletableFuture<ResponseEntity<byte[]>> result = hedged.runInferenceAsync(this.profile, new float[] {1.5f, 2f});
+
+        assertThat(result).failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GatewayException.class);
+        verify(this.modelTransport, times(2)).predict(any(ModelRerouteRequest.class));
+        // Two failures would reach the threshold of 2 and open the breaker
+        assertThat(this.hedgeBreaker.getState()).isEqualTo(ModelCircuitBreaker.State.CLOSED);
+    }
+}
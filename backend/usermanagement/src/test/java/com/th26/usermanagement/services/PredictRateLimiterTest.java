@@ -0,0 +1,101 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.exceptions.RateLimitExceededException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class PredictRateLimiterTest {
+    private static final String EMAIL = "jane.doe@example.com";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void allowsBurstThenRejects() {
+        PredictRateLimiter limiter = this.limiter(60, 3, Duration.ofMinutes(10));
+
+        limiter.acquire(EMAIL);
+        limiter.acquire(EMAIL);
+        limiter.acquire(EMAIL);
+
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+        assertThat(this.meterRegistry.get("ratelimit.predict.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsSeparateBucketPerUser() {
+        PredictRateLimiter limiter = this.limiter(60, 1, Duration.ofMinutes(10));
+
+        limiter.acquire(EMAIL);
+        limiter.acquire("john.doe@example.com");
+
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void sharesBucketAcrossEmailCase() {
+        PredictRateLimiter limiter = this.limiter(60, 1, Duration.ofMinutes(10));
+
+        limiter.acquire("Jane.Doe@Example.com");
+
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void refillsAtConfiguredRate() throws InterruptedException {
+        // One token every 100ms
+        PredictRateLimiter limiter = this.limiter(600, 1, Duration.ofMinutes(10));
+        limiter.acquire(EMAIL);
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+
+        Thread.sleep(150);
+
+        limiter.acquire(EMAIL);
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+    }
+
+    @Test
+    void retryAfterIsTimeUntilNextToken() {
+        PredictRateLimiter limiter = this.limiter(60, 2, Duration.ofMinutes(10));
+        limiter.acquire(EMAIL);
+        limiter.acquire(EMAIL);
+
+        RateLimitExceededException ex = catchThrowableOfType(RateLimitExceededException.class, () -> limiter.acquire(EMAIL));
+
+        assertThat(ex.getRetryAfter())
+            .isGreaterThan(Duration.ofMillis(900))
+            .isLessThanOrEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void idleBucketExpiresAndStartsFull() throws InterruptedException {
+        // Refilling would take a minute, so only expiry can let the next call through
+        PredictRateLimiter limiter = this.limiter(1, 1, Duration.ofMillis(100));
+        limiter.acquire(EMAIL);
+        assertThatThrownBy(() -> limiter.acquire(EMAIL)).isInstanceOf(RateLimitExceededException.class);
+
+        Thread.sleep(250);
+
+        limiter.acquire(EMAIL);
+    }
+
+    @Test
+    void allowsEverythingWhenDisabled() {
+        PredictRateLimiter limiter = new PredictRateLimiter(this.meterRegistry, false, 1, 1, Duration.ofMinutes(10), 100);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire(EMAIL);
+        }
+    }
+
+    private PredictRateLimiter limiter(int requestsPerMinute, int burst, Duration idleTimeout) {
+        return new PredictRateLimiter(this.meterRegistry, true, requestsPerMinute, burst, idleTimeout, 100);
+    }
+}
@@ -0,0 +1,94 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import com.th26.usermanagement.dtos.responses.RecordingResponse;
+import com.th26.usermanagement.dtos.responses.RecordingSummaryResponse;
+import com.th26.usermanagement.entities.Recording;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.exceptions.RecordingNotFoundException;
+import com.th26.usermanagement.exceptions.UserNotFoundException;
+import com.th26.usermanagement.repositories.RecordingRepository;
+import com.th26.usermanagement.repositories.UserRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecordingServiceImplTest {
+    private static final String EMAIL = "Jane.Doe@example.com";
+
+    private final RecordingRepository recordingRepository = mock(RecordingRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RecordingServiceImpl recordingService = new RecordingServiceImpl(this.recordingRepository, this.userRepository);
+
+    private final UUID id = UUID.randomUUID();
+    private final float[] samples = {1f, 4f, 2f, 2f, 0.5f, 3f, 1f, 1f};
+
+    private void givenRecording() {
+        when(this.recordingRepository.findByIdAndEmailKey(this.id, User.emailKey(EMAIL))).thenReturn(Optional.of(
+            Recording.builder()
+                .id(this.id)
+                .recordedAt(Instant.EPOCH)
+                .sampleCount(this.samples.length)
+                .encoding(BreathCodec.XOR_FLOAT32)
+                .samples(BreathCodec.encode(this.samples))
+                .build()
+        ));
+    }
+
+    @Test
+    void listsRecordingsOfUser() {
+        List<RecordingSummaryResponse> summaries = List.of(new RecordingSummaryResponse(this.id, Instant.EPOCH, 8));
+        when(this.recordingRepository.findSummariesByEmailKey(User.emailKey(EMAIL))).thenReturn(summaries);
+
+        assertThat(this.recordingService.getRecordingsByEmail(EMAIL)).isEqualTo(summaries);
+    }
+
+    @Test
+    void listsNoRecordingsForUserWithoutAny() {
+        when(this.userRepository.existsByEmailKey(User.emailKey(EMAIL))).thenReturn(true);
+
+        assertThat(this.recordingService.getRecordingsByEmail(EMAIL)).isEmpty();
+    }
+
+    @Test
+    void rejectsUnknownUser() {
+        assertThatThrownBy(() -> this.recordingService.getRecordingsByEmail(EMAIL))
+            .isInstanceOf(UserNotFoundException.class);
+    }
+
+    @Test
+    void returnsDecodedRecording() {
+        this.givenRecording();
+
+        RecordingResponse recording = this.recordingService.getRecording(EMAIL, this.id, null);
+
+        assertThat(recording.getId()).isEqualTo(this.id);
+        assertThat(recording.getSampleCount()).isEqualTo(this.samples.length);
+        assertThat(recording.getBreathData()).containsExactly(this.samples);
+    }
+
+    @Test
+    void returnsDownsampledRecording() {
+        this.givenRecording();
+
+        RecordingResponse recording = this.recordingService.getRecording(EMAIL, this.id, 4);
+
+        // Two buckets of four samples, each reduced to its extremes in order
+        assertThat(recording.getSampleCount()).isEqualTo(this.samples.length);
+        assertThat(recording.getBreathData()).containsExactly(1f, 4f, 0.5f, 3f);
+    }
+
+    @Test
+    void rejectsUnknownRecording() {
+        assertThatThrownBy(() -> this.recordingService.getRecording(EMAIL, this.id, null))
+            .isInstanceOf(RecordingNotFoundException.class);
+    }
+}
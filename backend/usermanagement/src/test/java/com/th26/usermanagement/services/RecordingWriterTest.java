@@ -0,0 +1,121 @@
+package com.th26.usermanagement.services;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.th26.usermanagement.entities.Recording;
+import com.th26.usermanagement.entities.User;
+import com.th26.usermanagement.repositories.RecordingRepository;
+import com.th26.usermanagement.repositories.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecordingWriterTest {
+    // Long enough that nothing is written until destroy() flushes
+    private static final Duration FLUSH_INTERVAL = Duration.ofHours(1);
+
+    private final RecordingRepository recordingRepository = mock(RecordingRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final User user = User.builder()
+        .email("Jane.Doe@example.com")
+        .emailKey(User.emailKey("Jane.Doe@example.com"))
+        .passwordHash("hash")
+        .build();
+
+    @BeforeEach
+    void setUp() {
+        when(this.transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(this.userRepository.findByEmailKeyIn(anySet())).thenReturn(List.of(this.user));
+    }
+
+    private RecordingWriter writer(boolean enabled, int queueCapacity) {
+        return new RecordingWriter(
+            this.recordingRepository, this.userRepository, this.transactionManager, this.meterRegistry,
+            enabled, queueCapacity, 100, FLUSH_INTERVAL
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Recording> saved() {
+        ArgumentCaptor<List<Recording>> recordings = ArgumentCaptor.forClass(List.class);
+        verify(this.recordingRepository).saveAll(recordings.capture());
+        return recordings.getValue();
+    }
+
+    @Test
+    void storesEncodedRecordingsInOneBatch() throws InterruptedException {
+        RecordingWriter writer = this.writer(true, 10);
+        float[] first = {1.5f, 1.5f, 1.75f, 2f};
+        float[] second = {0.5f};
+
+        writer.submit("jane.doe@EXAMPLE.com", first);
+        writer.submit("Jane.Doe@example.com", second);
+        writer.destroy();
+
+        List<Recording> recordings = this.saved();
+        assertThat(recordings).hasSize(2).allSatisfy(recording -> {
+            assertThat(recording.getUser()).isSameAs(this.user);
+            assertThat(recording.getEncoding()).isEqualTo(BreathCodec.XOR_FLOAT32);
+            assertThat(recording.getRecordedAt()).isNotNull();
+        });
+        assertThat(BreathCodec.decode(recordings.get(0).getSamples(), recordings.get(0).getSampleCount())).containsExactly(first);
+        assertThat(BreathCodec.decode(recordings.get(1).getSamples(), recordings.get(1).getSampleCount())).containsExactly(second);
+        verify(this.userRepository).findByEmailKeyIn(Set.of(this.user.getEmailKey()));
+        assertThat(this.meterRegistry.counter("recordings.stored").count()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsRecordingsOfDeletedUsers() throws InterruptedException {
+        RecordingWriter writer = this.writer(true, 10);
+
+        writer.submit("Jane.Doe@example.com", new float[] {1f});
+        writer.submit("deleted@example.com", new float[] {2f});
+        writer.destroy();
+
+        assertThat(this.saved()).singleElement().satisfies(recording ->
+            assertThat(recording.getUser()).isSameAs(this.user)
+        );
+        assertThat(this.meterRegistry.counter("recordings.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsRecordingsWhenTheQueueIsFull() throws InterruptedException {
+        RecordingWriter writer = this.writer(true, 1);
+
+        writer.submit("Jane.Doe@example.com", new float[] {1f});
+        writer.submit("Jane.Doe@example.com", new float[] {2f});
+        writer.destroy();
+
+        assertThat(this.saved()).hasSize(1);
+        assertThat(this.meterRegistry.counter("recordings.dropped").count()).isEqualTo(1);
+    }
+
+    @Test
+    void storesNothingWhenDisabled() throws InterruptedException {
+        RecordingWriter writer = this.writer(false, 10);
+
+        writer.submit("Jane.Doe@example.com", new float[] {1f});
+        writer.destroy();
+
+        verify(this.recordingRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,55 @@
+package com.th26.usermanagement.services;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+    private final SingleFlight<String, String> flights = new SingleFlight<>("test", new SimpleMeterRegistry());
+
+    @Test
+    void coalescesCallsInFlight() {
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        CompletableFuture<String> first = this.flights.execute("key", () -> result);
+        CompletableFuture<String> second = this.flights.execute("key", () -> CompletableFuture.completedFuture("other"));
+        result.complete("value");
+
+        assertThat(first.join()).isEqualTo("value");
+        assertThat(second.join()).isEqualTo("value");
+        assertThat(this.flights.execute("key", () -> CompletableFuture.completedFuture("next")).join()).isEqualTo("next");
+    }
+
+    @Test
+    void releasesKeyWhenCallThrowsError() {
+        assertThatThrownBy(() -> this.flights.call("key", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(this.flights.call("key", () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void releasesKeyWhenExecuteThrowsError() {
+        assertThatThrownBy(() -> this.flights.execute("key", () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        assertThat(this.flights.execute("key", () -> CompletableFuture.completedFuture("value")).join()).isEqualTo("value");
+    }
+
+    @Test
+    void releasesKeyWhenExecuteThrowsException() {
+        CompletableFuture<String> failed = this.flights.execute("key", () -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(this.flights.execute("key", () -> CompletableFuture.completedFuture("value")).join()).isEqualTo("value");
+    }
+}